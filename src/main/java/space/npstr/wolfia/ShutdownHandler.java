@@ -19,6 +19,7 @@
 
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -49,17 +50,20 @@ public class ShutdownHandler implements ApplicationListener<ContextClosedEvent>
     private final ShardManagerFactory shardManagerFactory;
     private final GameRegistry gameRegistry;
     private final ScheduledExecutorService jdaThreadPool;
+    private final ExecutorService commandExecutor;
 
     private boolean shuttingDown = false;
 
     public ShutdownHandler(BotStatusLogger botStatusLogger, ExceptionLoggingExecutor executor,
                            ShardManagerFactory shardManagerFactory, GameRegistry gameRegistry,
-                           @Qualifier("jdaThreadPool") ScheduledExecutorService jdaThreadPool) {
+                           @Qualifier("jdaThreadPool") ScheduledExecutorService jdaThreadPool,
+                           @Qualifier("commandExecutor") ExecutorService commandExecutor) {
         this.botStatusLogger = botStatusLogger;
         this.executor = executor;
         this.shardManagerFactory = shardManagerFactory;
         this.gameRegistry = gameRegistry;
         this.jdaThreadPool = jdaThreadPool;
+        this.commandExecutor = commandExecutor;
     }
 
     @Override
@@ -121,6 +125,10 @@ private void shutdown() {
         List<Runnable> executorRunnables = executor.shutdownNow();
         log.info("{} main executor runnables cancelled", executorRunnables.size());
 
+        log.info("Shutting down command executor");
+        List<Runnable> commandRunnables = commandExecutor.shutdownNow();
+        log.info("{} command executor runnables cancelled", commandRunnables.size());
+
         log.info("Shutting down rest actions executor");
         ScheduledExecutorService restService = RestActions.restService;
         List<Runnable> restActionsRunnables = restService.shutdownNow();
@@ -133,6 +141,8 @@ private void shutdown() {
         try {
             executor.awaitTermination(30, TimeUnit.SECONDS);
             log.info("Main executor terminated");
+            commandExecutor.awaitTermination(30, TimeUnit.SECONDS);
+            log.info("Command executor terminated");
             restService.awaitTermination(30, TimeUnit.SECONDS);
             log.info("Rest service terminated");
             jdaThreadPool.awaitTermination(30, TimeUnit.SECONDS);
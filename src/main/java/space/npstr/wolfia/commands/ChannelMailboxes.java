@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.commands;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+/**
+ * Serial mailboxes, one per channel, that run their tasks on the command executor instead of the thread that
+ * delivered the event.
+ * <p>
+ * Tasks of the same channel run one after another in the order they have been dispatched, while tasks of different
+ * channels run in parallel. A mailbox is removed as soon as it runs empty, and after each task it goes back to the end
+ * of the executor's queue, so a busy channel can not starve the others.
+ */
+@Component
+public class ChannelMailboxes {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ChannelMailboxes.class);
+
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final MetricsService metricsService;
+
+    public ChannelMailboxes(@Qualifier("commandExecutor") ExecutorService executor, MetricsService metricsService) {
+        this.executor = executor;
+        this.metricsService = metricsService;
+    }
+
+    public void dispatch(long channelId, Runnable task) {
+        Envelope envelope = new Envelope(task, System.nanoTime());
+        while (true) {
+            Mailbox mailbox = this.mailboxes.computeIfAbsent(channelId, Mailbox::new);
+            if (mailbox.offer(envelope)) {
+                return;
+            }
+            // the mailbox ran empty and was closed concurrently, try again with a fresh one
+        }
+    }
+
+    private record Envelope(Runnable task, long enqueued) {}
+
+    private class Mailbox {
+
+        private final long channelId;
+        // guarded by this
+        private final Queue<Envelope> queue = new ArrayDeque<>();
+        private boolean scheduled = false;
+        private boolean closed = false;
+
+        private Mailbox(long channelId) {
+            this.channelId = channelId;
+        }
+
+        private synchronized boolean offer(Envelope envelope) {
+            if (this.closed) {
+                return false;
+            }
+            this.queue.add(envelope);
+            metricsService.commandMailboxDepth().record(this.queue.size());
+            if (!this.scheduled) {
+                this.scheduled = true;
+                metricsService.commandMailboxes().set(mailboxes.size());
+                submit();
+            }
+            return true;
+        }
+
+        // call while holding the lock
+        private void submit() {
+            try {
+                executor.execute(this::runNext);
+            } catch (RejectedExecutionException e) {
+                log.warn("Command executor rejected mailbox of channel {}, dropping {} tasks",
+                        this.channelId, this.queue.size(), e);
+                this.queue.clear();
+                close();
+            }
+        }
+
+        private void runNext() {
+            Envelope envelope;
+            synchronized (this) {
+                envelope = this.queue.poll();
+            }
+            if (envelope != null) {
+                metricsService.commandMailboxWaitTime().record(System.nanoTime() - envelope.enqueued(), TimeUnit.NANOSECONDS);
+                try {
+                    envelope.task().run();
+                } catch (Exception e) {
+                    log.error("Uncaught exception while running task of channel {}", this.channelId, e);
+                }
+            }
+
+            synchronized (this) {
+                if (this.queue.isEmpty()) {
+                    close();
+                } else {
+                    submit();
+                }
+            }
+        }
+
+        // call while holding the lock
+        private void close() {
+            this.scheduled = false;
+            this.closed = true;
+            mailboxes.remove(this.channelId, this);
+            metricsService.commandMailboxes().set(mailboxes.size());
+        }
+    }
+}
@@ -18,41 +18,88 @@
 package space.npstr.wolfia.commands;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 import org.jspecify.annotations.Nullable;
 import org.springframework.stereotype.Component;
 import space.npstr.wolfia.commands.util.HelpCommand;
 import space.npstr.wolfia.config.properties.WolfiaConfig;
 
+/**
+ * Keeps an index of all command triggers and aliases. The index is built once during construction and is read only
+ * afterwards, so lookups from any thread are safe and cost a single hash lookup regardless of the amount of commands.
+ */
 @Component
 public class CommRegistry {
 
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(CommRegistry.class);
 
-    private final List<BaseCommand> commands = new ArrayList<>();
+    // lower cased trigger or alias -> command
+    private final Map<String, BaseCommand> triggers;
+    // same as above, but sorted, so we can look up triggers by their prefix
+    private final NavigableMap<String, BaseCommand> sortedTriggers;
+    // allows rejecting most unknown triggers without looking at their content
+    private final int minTriggerLength;
+    private final int maxTriggerLength;
 
     public CommRegistry(List<BaseCommand> comms, WolfiaConfig wolfiaConfig) {
-        comms.forEach(this::registerCommand);
-        registerCommand(new HelpCommand(this, wolfiaConfig));
+        Map<String, BaseCommand> index = new HashMap<>();
+        comms.forEach(command -> registerCommand(index, command));
+        registerCommand(index, new HelpCommand(this, wolfiaConfig));
+
+        this.triggers = Collections.unmodifiableMap(index);
+        this.sortedTriggers = Collections.unmodifiableNavigableMap(new TreeMap<>(index));
+        this.minTriggerLength = index.keySet().stream().mapToInt(String::length).min().orElse(0);
+        this.maxTriggerLength = index.keySet().stream().mapToInt(String::length).max().orElse(0);
     }
 
     @Nullable
     public BaseCommand getCommand(String input) {
-        return this.commands.stream()
-                .filter(command -> input.equalsIgnoreCase(command.getTrigger()) || command.getAliases().contains(input.toLowerCase()))
-                .findFirst()
-                .orElse(null);
+        return this.triggers.get(input.toLowerCase());
+    }
+
+    /**
+     * Look up a command by a range of the input, for example the trigger in a message that still includes the prefix.
+     * Does not allocate anything for inputs that are too long or too short to be a trigger.
+     */
+    @Nullable
+    public BaseCommand getCommand(String input, int start, int end) {
+        int length = end - start;
+        if (length < this.minTriggerLength || length > this.maxTriggerLength) {
+            return null;
+        }
+        return getCommand(input.substring(start, end));
+    }
+
+    /**
+     * @param prefix beginning of a trigger or alias, for example what a user typed before making a typo
+     * @return all commands that have a trigger or alias starting with the provided prefix, ordered by their triggers
+     */
+    public Set<BaseCommand> getCommandsStartingWith(String prefix) {
+        String lowerCasePrefix = prefix.toLowerCase();
+        if (lowerCasePrefix.isEmpty()) {
+            return new LinkedHashSet<>(this.sortedTriggers.values());
+        }
+        return new LinkedHashSet<>(this.sortedTriggers
+                .subMap(lowerCasePrefix, true, lowerCasePrefix + Character.MAX_VALUE, true)
+                .values());
     }
 
-    private void registerCommand(BaseCommand command) {
+    private static void registerCommand(Map<String, BaseCommand> index, BaseCommand command) {
         List<String> allTriggers = new ArrayList<>();
         allTriggers.add(command.getTrigger());
         allTriggers.addAll(command.getAliases());
         for (String trigger : allTriggers) {
-            if (getCommand(trigger) != null) {
+            BaseCommand existing = index.putIfAbsent(trigger.toLowerCase(), command);
+            if (existing != null && existing != command) {
                 log.error("Duplicate command trigger: {}", trigger);
             }
         }
-        this.commands.add(command);
     }
 }
@@ -17,6 +17,8 @@
 
 package space.npstr.wolfia.commands;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
@@ -44,16 +46,24 @@ public class CommandContext extends MessageContext {
      public final BaseCommand command;
 //     private final Histogram.Timer received;             // time when we received this command
     //@formatter:on
+    private final AtomicBoolean replied;                 // shared with contexts transformed from this one
 
     CommandContext(MessageReceivedEvent event, MetricsService metricsService, String trigger,
                    String[] args, String rawArgs, BaseCommand command) {
 
+        this(event, metricsService, trigger, args, rawArgs, command, new AtomicBoolean(false));
+    }
+
+    CommandContext(MessageReceivedEvent event, MetricsService metricsService, String trigger,
+                   String[] args, String rawArgs, BaseCommand command, AtomicBoolean replied) {
+
         super(event, metricsService);
         this.metricsService = metricsService;
         this.trigger = trigger;
         this.args = args;
         this.rawArgs = rawArgs;
         this.command = command;
+        this.replied = replied;
     }
 
 
@@ -73,6 +83,14 @@ public void deleteMessage() {
         }
     }
 
+    @Override
+    protected void onReplySent(long responseNanos) {
+        if (this.replied.compareAndSet(false, true)) {
+            this.metricsService.commandStageTimes(this.command.getClass().getSimpleName(), CommandHandler.shardId(this.jda))
+                    .get(CommandStage.FIRST_REPLY).record(responseNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
     //reply with the help
     public void help() {
         reply(this.command.formatHelp(this.invoker));
@@ -92,7 +110,7 @@ public GuildCommandContext requireGuild(boolean... answerUser) {
             Guild g = tc.getGuild();
             Member m = this.event.getMember();
             if (m != null) {
-                return new GuildCommandContext(this, metricsService, g, m, tc);
+                return new GuildCommandContext(this, metricsService, g, m, tc, this.replied);
             } else {
                 log.warn("Uh oh member is unexpectedly null when transforming CommandContext to GuildCommandContext");
             }
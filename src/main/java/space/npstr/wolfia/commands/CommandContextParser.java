@@ -17,13 +17,16 @@
 
 package space.npstr.wolfia.commands;
 
-import java.util.Arrays;
-import java.util.regex.Pattern;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import org.springframework.stereotype.Component;
 import space.npstr.wolfia.config.properties.WolfiaConfig;
 import space.npstr.wolfia.system.metrics.MetricsService;
 
+/**
+ * Most messages we receive are ordinary chat in game channels. To keep the cost of rejecting them as low as possible,
+ * the parser works on index ranges of the raw message content, and only creates the trigger and argument strings once
+ * a command has been matched.
+ */
 @Component
 public class CommandContextParser {
 
@@ -40,38 +43,73 @@ public CommandContextParser(MetricsService metricsService) {
     public CommandContext parse(CommRegistry commRegistry, MessageReceivedEvent event) {
 
         String raw = event.getMessage().getContentRaw();
-        String input;
 
         String prefix = WolfiaConfig.DEFAULT_PREFIX;
-        if (raw.toLowerCase().startsWith(prefix.toLowerCase())) {
-            input = raw.substring(prefix.length());
-        } else {
+        if (!raw.regionMatches(true, 0, prefix, 0, prefix.length())) {
             return null;
         }
 
-        input = input.trim();// eliminate possible whitespace between the prefix and the rest of the input
-        if (input.isEmpty()) {
+        // eliminate possible whitespace between the prefix and the rest of the input, same as String#trim() would
+        int start = prefix.length();
+        int end = raw.length();
+        while (start < end && raw.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && raw.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
             return null;
         }
 
-        //split by any length of white space characters
-        // the \p{javaSpaceChar} instead of the better known \s is used because it actually includes unicode whitespaces
-        String[] args = input.split("\\p{javaSpaceChar}+");
-        if (args.length < 1) {
-            return null; //while this shouldn't technically be possible due to the preprocessing of the input, better be safe than throw exceptions
+        int triggerEnd = nextSpace(raw, start, end);
+        BaseCommand command = commRegistry.getCommand(raw, start, triggerEnd);
+        if (command == null) {
+            return null;
         }
 
-        String commandTrigger = args[0];
-        BaseCommand command = commRegistry.getCommand(commandTrigger.toLowerCase());
+        return new CommandContext(event, metricsService,
+                raw.substring(start, triggerEnd),
+                tokenize(raw, triggerEnd, end), //exclude the command trigger
+                raw.substring(triggerEnd, end).trim(),
+                command
+        );
+    }
 
-        if (command == null) {
-            return null;
-        } else {
-            return new CommandContext(event, metricsService, commandTrigger,
-                    Arrays.copyOfRange(args, 1, args.length),//exclude args[0] that contains the command trigger
-                    input.replaceFirst(Pattern.quote(commandTrigger), "").trim(),
-                    command
-            );
+    /**
+     * Split the range of the input by any length of white space characters.
+     * {@link Character#isSpaceChar} is used instead of the better known \s because it actually includes unicode
+     * whitespaces.
+     */
+    static String[] tokenize(String input, int from, int to) {
+        int count = 0;
+        for (int i = skipSpaces(input, from, to); i < to; i = skipSpaces(input, nextSpace(input, i, to), to)) {
+            count++;
+        }
+
+        String[] tokens = new String[count];
+        int i = skipSpaces(input, from, to);
+        for (int n = 0; n < count; n++) {
+            int tokenEnd = nextSpace(input, i, to);
+            tokens[n] = input.substring(i, tokenEnd);
+            i = skipSpaces(input, tokenEnd, to);
+        }
+        return tokens;
+    }
+
+    private static int nextSpace(String input, int from, int to) {
+        int i = from;
+        while (i < to && !Character.isSpaceChar(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipSpaces(String input, int from, int to) {
+        int i = from;
+        while (i < to && Character.isSpaceChar(input.charAt(i))) {
+            i++;
         }
+        return i;
     }
 }
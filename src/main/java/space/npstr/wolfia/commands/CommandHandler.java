@@ -21,9 +21,11 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.IMentionable;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
@@ -41,7 +43,6 @@
 import space.npstr.wolfia.config.properties.WolfiaConfig;
 import space.npstr.wolfia.domain.game.GameRegistry;
 import space.npstr.wolfia.domain.privacy.PrivacyService;
-import space.npstr.wolfia.domain.settings.ChannelSettings;
 import space.npstr.wolfia.domain.settings.ChannelSettingsService;
 import space.npstr.wolfia.domain.setup.InCommand;
 import space.npstr.wolfia.events.WolfiaGuildListener;
@@ -69,10 +70,13 @@ public class CommandHandler {
     private final ChannelSettingsService channelSettingsService;
     private final PrivacyService privacyService;
     private final MetricsService metricsService;
+    private final ChannelMailboxes channelMailboxes;
+    private final CommandRateLimiter rateLimiter;
 
     public CommandHandler(GameRegistry gameRegistry, CommandContextParser commandContextParser,
                           CommRegistry commRegistry, ChannelSettingsService channelSettingsService,
-                          PrivacyService privacyService, MetricsService metricsService) {
+                          PrivacyService privacyService, MetricsService metricsService,
+                          ChannelMailboxes channelMailboxes, CommandRateLimiter rateLimiter) {
 
         this.gameRegistry = gameRegistry;
         this.commandContextParser = commandContextParser;
@@ -80,11 +84,14 @@ public CommandHandler(GameRegistry gameRegistry, CommandContextParser commandCon
         this.channelSettingsService = channelSettingsService;
         this.privacyService = privacyService;
         this.metricsService = metricsService;
+        this.channelMailboxes = channelMailboxes;
+        this.rateLimiter = rateLimiter;
     }
 
     @EventListener
     public void onMessageReceived(MessageReceivedEvent event) {
         Timer.Sample received = Timer.start();
+        long stageStart = System.nanoTime();
         //ignore bot accounts generally
         if (event.getAuthor().isBot()) {
             return;
@@ -92,35 +99,61 @@ public void onMessageReceived(MessageReceivedEvent event) {
 
         //ignore channels where we don't have sending permissions, with a special exception for the help command
         if (event.isFromType(ChannelType.TEXT) && !event.getChannel().canTalk()
-                && !event.getMessage().getContentRaw().toLowerCase().startsWith((WolfiaConfig.DEFAULT_PREFIX + HelpCommand.TRIGGER).toLowerCase())) {
+                && !isHelpCommand(event.getMessage().getContentRaw())) {
             return;
         }
+        long filtered = System.nanoTime();
 
         //update user stats
         Game g = this.gameRegistry.get(event.getChannel().getIdLong());
         if (g != null) g.userPosted(event.getMessage());
+        long userPosted = System.nanoTime();
 
 
         CommandContext context = this.commandContextParser.parse(this.commRegistry, event);
+        long parsed = System.nanoTime();
 
         if (context == null) {
             return;
         }
+        // we only know which command the earlier stages belong to once we parsed the message
+        Map<CommandStage, Timer> stageTimes = this.metricsService.commandStageTimes(
+                context.command.getClass().getSimpleName(), shardId(event.getJDA()));
+        recordStage(stageTimes, CommandStage.FILTER, stageStart, filtered);
+        recordStage(stageTimes, CommandStage.USER_POSTED, filtered, userPosted);
+        recordStage(stageTimes, CommandStage.PARSE, userPosted, parsed);
+        if (!this.rateLimiter.tryAcquire(context)) {
+            return;
+        }
+
+        // everything from here on may block, so get off the thread that delivered the event
+        this.channelMailboxes.dispatch(context.getChannel().getIdLong(), () -> process(context, received));
+    }
+
+    private void process(CommandContext context, Timer.Sample received) {
+        MessageReceivedEvent event = context.event;
+        Map<CommandStage, Timer> stageTimes = this.metricsService.commandStageTimes(
+                context.command.getClass().getSimpleName(), shardId(context.getJda()));
+        long stageStart = System.nanoTime();
 
-        // this check does a database request so we want it to be further down the check chain.
         // we can put this check behind the user stats processing, because users who dont have data processing enabled,
         // cannot issue commands, so they cannot join games, to their user stats won't be processed
-        if (!this.privacyService.isDataProcessingEnabled(event.getAuthor().getIdLong())) {
+        boolean dataProcessingEnabled = this.privacyService.isDataProcessingEnabled(event.getAuthor().getIdLong());
+        stageStart = recordStage(stageTimes, CommandStage.PRIVACY, stageStart, System.nanoTime());
+        if (!dataProcessingEnabled) {
             return;
         }
 
         BaseCommand command = context.command;
-        if (command instanceof GameCommand
+        boolean requiresGameChannel = command instanceof GameCommand
                 || command instanceof StartCommand
                 || command instanceof InCommand
-                || command instanceof TagCommand) {
-            ChannelSettings channelSettings = this.channelSettingsService.channel(context.getChannel().getIdLong()).getOrDefault();
-            if (!channelSettings.isGameChannel()) {
+                || command instanceof TagCommand;
+        boolean isGameChannel = !requiresGameChannel
+                || this.channelSettingsService.isGameChannel(context.getChannel().getIdLong());
+        stageStart = recordStage(stageTimes, CommandStage.CHANNEL_SETTINGS, stageStart, System.nanoTime());
+        if (requiresGameChannel) {
+            if (!isGameChannel) {
                 String alternativeChannels = "";
                 List<TextChannel> suggestedChannels = suggestGameEnabledChannels(context);
                 if (!suggestedChannels.isEmpty()) {
@@ -154,10 +187,28 @@ public void onMessageReceived(MessageReceivedEvent event) {
                 return;
             }
         }
+        recordStage(stageTimes, CommandStage.LOUNGE_FILTER, stageStart, System.nanoTime());
 
         handleCommand(context, received);
     }
 
+    /**
+     * @return the end of the recorded stage, which is the start of the next one
+     */
+    private static long recordStage(Map<CommandStage, Timer> stageTimes, CommandStage stage, long start, long end) {
+        stageTimes.get(stage).record(end - start, TimeUnit.NANOSECONDS);
+        return end;
+    }
+
+    static int shardId(JDA jda) {
+        return jda.getShardInfo().getShardId();
+    }
+
+    private static boolean isHelpCommand(String raw) {
+        String help = WolfiaConfig.DEFAULT_PREFIX + HelpCommand.TRIGGER;
+        return raw.regionMatches(true, 0, help, 0, help.length());
+    }
+
     private List<TextChannel> suggestGameEnabledChannels(CommandContext context) {
         Optional<Member> memberOpt = context.getMember();
         if (memberOpt.isEmpty()) {
@@ -167,8 +218,8 @@ private List<TextChannel> suggestGameEnabledChannels(CommandContext context) {
         List<TextChannel> textChannels = new ArrayList<>(member.getGuild().getTextChannels());
         Collections.shuffle(textChannels);
         return textChannels.stream()
+                .filter(channel -> channelSettingsService.isGameChannel(channel.getIdLong()))
                 .filter(channel -> channel.canTalk(member))
-                .filter(channel -> channelSettingsService.channel(channel.getIdLong()).getOrDefault().isGameChannel())
                 .limit(3)
                 .collect(Collectors.toList());
     }
@@ -193,7 +244,10 @@ private void handleCommand(CommandContext context, Timer.Sample received) {
             try {
                 context.command.execute(context);
             } finally {
-                sample.stop(metricsService.commandProcessTime(context.command.getClass().getSimpleName()));
+                String commandName = context.command.getClass().getSimpleName();
+                long executeNanos = sample.stop(metricsService.commandProcessTime(commandName));
+                metricsService.commandStageTimes(commandName, shardId(context.getJda())).get(CommandStage.EXECUTE)
+                        .record(executeNanos, TimeUnit.NANOSECONDS);
             }
         } catch (UserFriendlyException e) {
             context.reply("There was a problem executing your command:\n" + e.getMessage());
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.commands;
+
+import java.time.Clock;
+import net.dv8tion.jda.api.entities.User;
+import org.springframework.stereotype.Component;
+import space.npstr.wolfia.config.properties.RateLimitConfig;
+import space.npstr.wolfia.domain.game.GameRegistry;
+import space.npstr.wolfia.game.Game;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+/**
+ * Protects the database and our REST budget from users spamming commands, and from bots triggering each other.
+ * Commands are limited per user and per channel, and anything over the limit is dropped without a reply, as any reply
+ * would just cost more of the channel's rate limit.
+ * <p>
+ * The channel limit is set well above the sign up bursts after a tag list ping, and does not apply to channels with a
+ * running game, so that a round of votes is never dropped. Likewise the user limit does not apply to players of a
+ * running game, as users share their buckets with other users and a spammer must not be able to eat the budget for
+ * the votes and shots of a player. A command only takes tokens once both limits allow it, so a command dropped by the
+ * channel limit does not cost the user anything.
+ */
+@Component
+public class CommandRateLimiter {
+
+    private static final String SCOPE_USER = "user";
+    private static final String SCOPE_CHANNEL = "channel";
+
+    private final RateLimitConfig config;
+    private final MetricsService metricsService;
+    private final TokenBuckets users;
+    private final TokenBuckets channels;
+    private final Clock clock;
+    private final GameRegistry gameRegistry;
+
+    public CommandRateLimiter(RateLimitConfig config, MetricsService metricsService, Clock clock,
+                              GameRegistry gameRegistry) {
+        this.config = config;
+        this.metricsService = metricsService;
+        this.users = new TokenBuckets(config.getStripes(), config.getUserBurst(), config.getUserRefillMillis());
+        this.channels = new TokenBuckets(config.getStripes(), config.getChannelBurst(), config.getChannelRefillMillis());
+        this.clock = clock;
+        this.gameRegistry = gameRegistry;
+    }
+
+    /**
+     * @return true if the command may be run, false if it should be dropped
+     */
+    public boolean tryAcquire(CommandContext context) {
+        if (!this.config.isEnabled()) {
+            return true;
+        }
+
+        long now = this.clock.millis();
+        long userId = context.getInvoker().getIdLong();
+        long channelId = context.getChannel().getIdLong();
+        boolean limitChannel = this.gameRegistry.get(channelId) == null;
+        boolean limitUser = !isPlaying(context.getInvoker());
+        if (limitUser && !this.users.hasToken(userId, now)) {
+            this.metricsService.commandsRateLimited(SCOPE_USER).increment();
+            return false;
+        }
+        if (limitChannel && !this.channels.hasToken(channelId, now)) {
+            this.metricsService.commandsRateLimited(SCOPE_CHANNEL).increment();
+            return false;
+        }
+        // concurrent commands may overdraw a bucket by a token or two here, which is fine for a spam protection
+        if (limitUser) {
+            this.users.take(userId, now);
+        }
+        if (limitChannel) {
+            this.channels.take(channelId, now);
+        }
+        this.metricsService.commandsAllowed().increment();
+        return true;
+    }
+
+    private boolean isPlaying(User user) {
+        for (Game game : this.gameRegistry.getAll().values()) {
+            if (game.isUserPlaying(user)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.commands;
+
+/**
+ * The stages a message goes through in the {@link CommandHandler}, timed separately so we can tell where the time of
+ * slow commands is spent.
+ */
+public enum CommandStage {
+    FILTER,           // ignoring bots and channels we can't talk in
+    USER_POSTED,      // updating the stats of a running game
+    PARSE,            // recognizing a command in the message
+    PRIVACY,          // checking whether the user allows us to process their data
+    CHANNEL_SETTINGS, // checking whether games may be played in the channel
+    LOUNGE_FILTER,    // restrictions in the Wolfia Lounge
+    EXECUTE,          // running the command
+    FIRST_REPLY,      // round trip of the first reply of the command to Discord
+    ;
+
+    public final String tagValue = name().toLowerCase();
+}
@@ -18,6 +18,7 @@
 package space.npstr.wolfia.commands;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
@@ -49,9 +50,9 @@ public TextChannel getTextChannel() {
         return this.textChannel;
     }
 
-    public GuildCommandContext(CommandContext context, MetricsService metricsService, Guild guild,
-                               Member member, TextChannel textChannel) {
-        super(context.event, metricsService, context.trigger, context.args, context.rawArgs, context.command);
+    GuildCommandContext(CommandContext context, MetricsService metricsService, Guild guild,
+                        Member member, TextChannel textChannel, AtomicBoolean replied) {
+        super(context.event, metricsService, context.trigger, context.args, context.rawArgs, context.command, replied);
         this.guild = guild;
         this.member = member;
         this.textChannel = textChannel;
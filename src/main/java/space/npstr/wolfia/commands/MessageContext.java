@@ -187,11 +187,21 @@ public static EmbedBuilder getDefaultEmbedBuilder() {
     //                         Internal context stuff
     // ********************************************************************************
 
+    /**
+     * Called after a reply has been successfully sent.
+     *
+     * @param responseNanos round trip of sending the reply
+     */
+    protected void onReplySent(long responseNanos) {
+        // nothing to do by default
+    }
+
     private void reply0(MessageCreateData message, @Nullable Consumer<Message> onSuccess) {
         Timer.Sample sample = Timer.start();
 
         Consumer<Message> successWrapper = m -> {
-            sample.stop(metricsService.commandResponseTime());
+            long responseNanos = sample.stop(metricsService.commandResponseTime());
+            onReplySent(responseNanos);
             Instant in = getMessage().getTimeCreated().toInstant();
             Instant out = m.getTimeCreated().toInstant();
             Duration between = Duration.between(in, out);
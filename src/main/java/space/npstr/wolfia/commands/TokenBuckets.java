@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.commands;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free token buckets for long keys, implemented as a generic cell rate algorithm: each bucket only stores the
+ * theoretical arrival time of the next request, which can be updated with a single atomic operation.
+ * <p>
+ * Keys are hashed onto a fixed amount of stripes instead of keeping a bucket per key, so memory use is constant. Keys
+ * that share a stripe share their budget, which is an acceptable inaccuracy with enough stripes.
+ */
+class TokenBuckets {
+
+    private final AtomicLongArray arrivalTimes;
+    private final int mask;
+    private final long refillMillis;
+    private final long burstToleranceMillis;
+
+    /**
+     * @param stripes rounded up to the next power of two
+     */
+    TokenBuckets(int stripes, int burst, long refillMillis) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.arrivalTimes = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.refillMillis = refillMillis;
+        this.burstToleranceMillis = this.refillMillis * (Math.max(1, burst) - 1);
+    }
+
+    /**
+     * @param nowMillis current time, must not be negative
+     * @return true if the bucket of the key has a token left, without taking it
+     */
+    boolean hasToken(long key, long nowMillis) {
+        long arrival = this.arrivalTimes.get(stripe(key));
+        return Math.max(arrival, nowMillis) - nowMillis <= this.burstToleranceMillis;
+    }
+
+    /**
+     * Take a token from the bucket of the key, even if it is empty. Meant to be called after {@link #hasToken}, when
+     * a request has to pass more than one bucket.
+     *
+     * @param nowMillis current time, must not be negative
+     */
+    void take(long key, long nowMillis) {
+        int stripe = stripe(key);
+        this.arrivalTimes.accumulateAndGet(stripe, nowMillis,
+                (arrival, now) -> Math.max(arrival, now) + this.refillMillis);
+    }
+
+    private int stripe(long key) {
+        // snowflakes share their high bits (timestamp) and low bits (worker and increment) with their neighbours
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & this.mask;
+    }
+}
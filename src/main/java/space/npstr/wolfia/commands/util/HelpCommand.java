@@ -18,6 +18,7 @@
 package space.npstr.wolfia.commands.util;
 
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
@@ -67,8 +68,9 @@ public boolean execute(CommandContext context) {
             BaseCommand command = this.commRegistry.getCommand(context.args[0]);
             String answer;
             if (!(command instanceof PublicCommand)) {
-                answer = String.format("There is no command registered for `%s`. Use `%s` to see all available commands!",
-                        TextchatUtils.defuseMentions(context.args[0]), WolfiaConfig.DEFAULT_PREFIX + CommandsCommand.TRIGGER);
+                answer = String.format("There is no command registered for `%s`.%s Use `%s` to see all available commands!",
+                        TextchatUtils.defuseMentions(context.args[0]), suggest(context.args[0]),
+                        WolfiaConfig.DEFAULT_PREFIX + CommandsCommand.TRIGGER);
             } else {
                 answer = TextchatUtils.asMarkdown(command.getHelp());
             }
@@ -106,4 +108,16 @@ public boolean execute(CommandContext context) {
         context.replyPrivate(help, onSuccess, onFail);
         return true;
     }
+
+    private String suggest(String input) {
+        String suggestions = this.commRegistry.getCommandsStartingWith(input).stream()
+                .filter(PublicCommand.class::isInstance)
+                .limit(3)
+                .map(command -> "`" + command.invocation() + "`")
+                .collect(Collectors.joining(", "));
+        if (suggestions.isEmpty()) {
+            return "";
+        }
+        return " Did you mean " + suggestions + "?";
+    }
 }
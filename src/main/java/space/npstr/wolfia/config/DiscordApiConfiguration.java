@@ -17,22 +17,25 @@
 
 package space.npstr.wolfia.config;
 
-import java.util.concurrent.ScheduledExecutorService;
+import java.time.Duration;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicInteger;
 import net.dv8tion.jda.api.sharding.ShardManager;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import space.npstr.prometheus_extensions.ThreadPoolCollector;
 import space.npstr.wolfia.SpringProfiles;
 import space.npstr.wolfia.system.Exceptions;
+import space.npstr.wolfia.system.metrics.ExecutorTelemetry;
+import space.npstr.wolfia.system.metrics.MetricsService;
 
 @Configuration
 public class DiscordApiConfiguration {
 
     @Bean(destroyMethod = "", name = "jdaThreadPool")
-    public ScheduledExecutorService jdaThreadPool(ThreadPoolCollector threadPoolCollector) {
+    public ScheduledThreadPoolExecutor jdaThreadPool(ThreadPoolCollector threadPoolCollector) {
         AtomicInteger threadNumber = new AtomicInteger(0);
         ScheduledThreadPoolExecutor jdaThreadPool = new ScheduledThreadPoolExecutor(50, r -> {
             Thread thread = new Thread(r, "jda-pool-t" + threadNumber.getAndIncrement());
@@ -43,6 +46,15 @@ public ScheduledExecutorService jdaThreadPool(ThreadPoolCollector threadPoolColl
         return jdaThreadPool;
     }
 
+    /**
+     * JDA uses the jda thread pool through the views of this, see {@link ShardManagerFactory}.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorTelemetry jdaThreadPoolTelemetry(@Qualifier("jdaThreadPool") ScheduledThreadPoolExecutor jdaThreadPool,
+                                                    MetricsService metricsService) {
+        return new ExecutorTelemetry("jda", jdaThreadPool, metricsService, Duration.ofSeconds(1), Duration.ofSeconds(10));
+    }
+
     @Profile(SpringProfiles.NOT_TEST)
     @Bean(destroyMethod = "") //we manage the lifecycle ourselves tyvm, see shutdown hook in the launcher
     public ShardManager shardManager(ShardManagerFactory shardManagerFactory) {
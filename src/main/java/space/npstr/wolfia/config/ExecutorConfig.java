@@ -17,19 +17,85 @@
 
 package space.npstr.wolfia.config;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import space.npstr.prometheus_extensions.ThreadPoolCollector;
+import space.npstr.wolfia.config.properties.WolfiaConfig;
 import space.npstr.wolfia.game.tools.ExceptionLoggingExecutor;
+import space.npstr.wolfia.game.tools.HashedWheelTimer;
+import space.npstr.wolfia.system.Exceptions;
+import space.npstr.wolfia.system.metrics.MetricsService;
 
+/**
+ * With {@link WolfiaConfig#isVirtualThreads()} enabled, the work of our executors runs on virtual threads, and only
+ * the scheduling of delayed and periodic tasks stays on a few platform threads.
+ */
 @Configuration
 public class ExecutorConfig {
 
     @Bean(destroyMethod = "")
-    public ExceptionLoggingExecutor mainExceptionLoggingExecutor(ThreadPoolCollector poolMetrics) {
-        var executor = new ExceptionLoggingExecutor(100, "main-scheduled-executor");
+    public ExceptionLoggingExecutor mainExceptionLoggingExecutor(ThreadPoolCollector poolMetrics, WolfiaConfig wolfiaConfig) {
+        ExceptionLoggingExecutor executor;
+        if (wolfiaConfig.isVirtualThreads()) {
+            ThreadPoolExecutor worker = virtualThreadPool("main-executor-v");
+            poolMetrics.addPool("main-virtual", worker);
+            executor = new ExceptionLoggingExecutor(4, r -> new Thread(r, "main-scheduled-executor"), worker);
+        } else {
+            executor = new ExceptionLoggingExecutor(100, "main-scheduled-executor");
+        }
 
         poolMetrics.addPool("main", executor);
         return executor;
     }
+
+    /**
+     * Runs the commands of all channels, see {@link space.npstr.wolfia.commands.ChannelMailboxes}. Keeps blocking
+     * commands off the JDA threads.
+     */
+    @Bean(destroyMethod = "", name = "commandExecutor")
+    public ExecutorService commandExecutor(ThreadPoolCollector poolMetrics, WolfiaConfig wolfiaConfig) {
+        ThreadPoolExecutor executor;
+        if (wolfiaConfig.isVirtualThreads()) {
+            executor = virtualThreadPool("command-executor-v");
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger(0);
+            executor = new ThreadPoolExecutor(50, 50, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "command-executor-t" + threadNumber.getAndIncrement());
+                thread.setUncaughtExceptionHandler(Exceptions.UNCAUGHT_EXCEPTION_HANDLER);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+        }
+
+        poolMetrics.addPool("command", executor);
+        return executor;
+    }
+
+    /**
+     * Shared timer for coarse timeouts like game phases and reaction listeners. Expired timeouts run on the main
+     * executor, or are handed off by the game they belong to to its own executor.
+     */
+    @Bean(destroyMethod = "stop")
+    public HashedWheelTimer timerWheel(ExceptionLoggingExecutor mainExceptionLoggingExecutor, MetricsService metricsService) {
+        return new HashedWheelTimer("main", Duration.ofSeconds(1), 512, mainExceptionLoggingExecutor, metricsService);
+    }
+
+    /**
+     * Starts a new virtual thread for each task. It is still a {@link ThreadPoolExecutor} (that never keeps idle
+     * threads around) so that its active and completed tasks show up in our pool metrics.
+     */
+    private static ThreadPoolExecutor virtualThreadPool(String threadNamePrefix) {
+        var threadFactory = Thread.ofVirtual()
+                .name(threadNamePrefix, 0)
+                .uncaughtExceptionHandler(Exceptions.UNCAUGHT_EXCEPTION_HANDLER)
+                .factory();
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+    }
 }
@@ -18,7 +18,6 @@
 package space.npstr.wolfia.config;
 
 import java.util.List;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Supplier;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.requests.GatewayIntent;
@@ -33,7 +32,8 @@
 import space.npstr.prometheus_extensions.OkHttpEventCounter;
 import space.npstr.wolfia.App;
 import space.npstr.wolfia.config.properties.WolfiaConfig;
-import space.npstr.wolfia.system.DiscordEventListenerPublisher;
+import space.npstr.wolfia.system.DiscordEventBus;
+import space.npstr.wolfia.system.metrics.ExecutorTelemetry;
 import space.npstr.wolfia.utils.Memoizer;
 
 import static net.dv8tion.jda.api.requests.GatewayIntent.DIRECT_MESSAGES;
@@ -73,20 +73,20 @@ public class ShardManagerFactory {
     );
 
     private final WolfiaConfig wolfiaConfig;
-    private final DiscordEventListenerPublisher discordEventListenerPublisher;
+    private final DiscordEventBus discordEventBus;
     private final OkHttpClient.Builder httpClientBuilder;
-    private final ScheduledExecutorService jdaThreadPool;
+    private final ExecutorTelemetry jdaThreadPool;
     private final Supplier<ShardManager> singleton;
 
     private volatile boolean created = false;
 
 
-    public ShardManagerFactory(WolfiaConfig wolfiaConfig, DiscordEventListenerPublisher discordEventListenerPublisher,
+    public ShardManagerFactory(WolfiaConfig wolfiaConfig, DiscordEventBus discordEventBus,
                                OkHttpClient.Builder httpClientBuilder,
-                               @Qualifier("jdaThreadPool") ScheduledExecutorService jdaThreadPool) {
+                               @Qualifier("jdaThreadPoolTelemetry") ExecutorTelemetry jdaThreadPool) {
 
         this.wolfiaConfig = wolfiaConfig;
-        this.discordEventListenerPublisher = discordEventListenerPublisher;
+        this.discordEventBus = discordEventBus;
         this.httpClientBuilder = httpClientBuilder;
         this.jdaThreadPool = jdaThreadPool;
         this.singleton = Memoizer.memoize(this::createShardManager);
@@ -106,7 +106,7 @@ private synchronized ShardManager createShardManager() {
         DefaultShardManagerBuilder builder = DefaultShardManagerBuilder.create(GATEWAY_INTENTS)
                 .setToken(this.wolfiaConfig.getDiscordToken())
                 .setActivity(Activity.playing(App.GAME_STATUS))
-                .addEventListeners(this.discordEventListenerPublisher)
+                .addEventListeners(this.discordEventBus)
                 .setHttpClientBuilder(this.httpClientBuilder
                         .eventListener(new OkHttpEventCounter("jda")))
                 .disableCache(ACTIVITY, VOICE_STATE, EMOJI, CLIENT_STATUS)
@@ -115,11 +115,14 @@ private synchronized ShardManager createShardManager() {
                 .enableCache(MEMBER_OVERRIDES)
                 .disableCache(CacheFlag.ONLINE_STATUS, CacheFlag.SCHEDULED_EVENTS)
                 .setEnableShutdownHook(false)
-                .setRateLimitScheduler(this.jdaThreadPool, false)
-                .setRateLimitElastic(this.jdaThreadPool, false)
-                .setCallbackPool(this.jdaThreadPool, false)
-                .setAudioPool(this.jdaThreadPool, false)
-                .setGatewayPool(this.jdaThreadPool, false);
+                // all of these run on the same jda thread pool, the views tag the metrics of its tasks by their role.
+                // the gateway pool only runs heartbeats and reconnects, events are handled on the websocket read
+                // threads, their handling is timed per event type by the DiscordEventBus
+                .setRateLimitScheduler(this.jdaThreadPool.forRole("ratelimit-scheduler"), false)
+                .setRateLimitElastic(this.jdaThreadPool.forRole("ratelimit-elastic"), false)
+                .setCallbackPool(this.jdaThreadPool.forRole("callback"), false)
+                .setAudioPool(this.jdaThreadPool.forRole("audio"), false)
+                .setGatewayPool(this.jdaThreadPool.forRole("gateway-heartbeat"), false);
 
         ShardManager shardManager = builder.build();
         this.created = true;
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracking of user activity, see {@link space.npstr.wolfia.domain.setup.lastactive.ActivityService}.
+ */
+@Component
+@ConfigurationProperties("activity")
+public class ActivityConfig {
+
+    private long debounceMillis = 30000;
+    private int debounceSlots = 16384;
+    private int sweepBatchSize = 500;
+
+    public long getDebounceMillis() {
+        return debounceMillis;
+    }
+
+    public void setDebounceMillis(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+    }
+
+    public int getDebounceSlots() {
+        return debounceSlots;
+    }
+
+    public void setDebounceSlots(int debounceSlots) {
+        this.debounceSlots = debounceSlots;
+    }
+
+    public int getSweepBatchSize() {
+        return sweepBatchSize;
+    }
+
+    public void setSweepBatchSize(int sweepBatchSize) {
+        this.sweepBatchSize = sweepBatchSize;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits for commands, see {@link space.npstr.wolfia.commands.CommandRateLimiter}. A burst is the amount of commands
+ * that may be issued at once, the refill is the time after which one more command is allowed.
+ */
+@Component
+@ConfigurationProperties("ratelimit")
+public class RateLimitConfig {
+
+    private boolean enabled = true;
+    private int stripes = 4096;
+    private int userBurst = 5;
+    private long userRefillMillis = 2000;
+    private int channelBurst = 60;
+    private long channelRefillMillis = 250;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public int getUserBurst() {
+        return userBurst;
+    }
+
+    public void setUserBurst(int userBurst) {
+        this.userBurst = userBurst;
+    }
+
+    public long getUserRefillMillis() {
+        return userRefillMillis;
+    }
+
+    public void setUserRefillMillis(long userRefillMillis) {
+        this.userRefillMillis = userRefillMillis;
+    }
+
+    public int getChannelBurst() {
+        return channelBurst;
+    }
+
+    public void setChannelBurst(int channelBurst) {
+        this.channelBurst = channelBurst;
+    }
+
+    public long getChannelRefillMillis() {
+        return channelRefillMillis;
+    }
+
+    public void setChannelRefillMillis(long channelRefillMillis) {
+        this.channelRefillMillis = channelRefillMillis;
+    }
+}
@@ -14,25 +14,25 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
+package space.npstr.wolfia.config.properties;
 
-package space.npstr.wolfia.system;
-
-import net.dv8tion.jda.api.events.GenericEvent;
-import net.dv8tion.jda.api.hooks.ListenerAdapter;
-import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+/**
+ * Game setups of channels, see {@link space.npstr.wolfia.domain.setup.GameSetupService}.
+ */
 @Component
-public class DiscordEventListenerPublisher extends ListenerAdapter {
+@ConfigurationProperties("setup")
+public class SetupConfig {
 
-    private final ApplicationEventPublisher eventPublisher;
+    private long signUpWindowMillis = 20;
 
-    public DiscordEventListenerPublisher(ApplicationEventPublisher eventPublisher) {
-        this.eventPublisher = eventPublisher;
+    public long getSignUpWindowMillis() {
+        return signUpWindowMillis;
     }
 
-    @Override
-    public void onGenericEvent(GenericEvent event) {
-        this.eventPublisher.publishEvent(event);
+    public void setSignUpWindowMillis(long signUpWindowMillis) {
+        this.signUpWindowMillis = signUpWindowMillis;
     }
 }
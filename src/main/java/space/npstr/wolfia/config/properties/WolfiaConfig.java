@@ -29,6 +29,7 @@ public class WolfiaConfig {
     private boolean debug = true;
     private String discordToken = "";
     private String botstatusWebhook = "";
+    private boolean virtualThreads = false;
 
     public boolean isDebug() {
         return debug;
@@ -58,6 +59,14 @@ public void setBotstatusWebhook(String botstatusWebhook) {
         this.botstatusWebhook = botstatusWebhook;
     }
 
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
     public String getDefaultPrefix() {
         return isDebug() ? "d." : DEFAULT_PREFIX;
     }
@@ -60,6 +60,8 @@ default boolean replyAndWaitForAnswer(MessageContext context, String sendMessage
         context.reply(sendMessage);
         getEventWaiter().waitForEvent(
                 MessageReceivedEvent.class,
+                EventWaiter.Key.USER,
+                context.getInvoker().getIdLong(),
                 waitForInvokerInChannel(context),
                 action,
                 getTimeout(),
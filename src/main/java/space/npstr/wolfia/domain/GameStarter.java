@@ -17,8 +17,10 @@
 
 package space.npstr.wolfia.domain;
 
+import io.micrometer.core.instrument.Timer;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.sharding.ShardManager;
 import org.springframework.stereotype.Component;
@@ -36,6 +38,7 @@
 import space.npstr.wolfia.game.Game;
 import space.npstr.wolfia.game.GameResources;
 import space.npstr.wolfia.game.exceptions.IllegalGameStateException;
+import space.npstr.wolfia.system.metrics.MetricsService;
 import space.npstr.wolfia.utils.UserFriendlyException;
 import space.npstr.wolfia.utils.discord.RestActions;
 import space.npstr.wolfia.utils.discord.TextchatUtils;
@@ -57,11 +60,14 @@ public class GameStarter {
     private final ChannelSettingsService channelSettingsService;
     private final ShutdownHandler shutdownHandler;
     private final GameResources gameResources;
+    private final MetricsService metricsService;
+    // channels that a game is being started in right now
+    private final Set<Long> starting = ConcurrentHashMap.newKeySet();
 
     public GameStarter(GameSetupService gameSetupService, MaintenanceService maintenanceService,
                        GameRegistry gameRegistry, ActivityService activityService,
                        ChannelSettingsService channelSettingsService, ShutdownHandler shutdownHandler,
-                       GameResources gameResources) {
+                       GameResources gameResources, MetricsService metricsService) {
 
         this.gameSetupService = gameSetupService;
         this.maintenanceService = maintenanceService;
@@ -70,10 +76,34 @@ public GameStarter(GameSetupService gameSetupService, MaintenanceService mainten
         this.channelSettingsService = channelSettingsService;
         this.shutdownHandler = shutdownHandler;
         this.gameResources = gameResources;
+        this.metricsService = metricsService;
     }
 
-    //needs to be synchronized so only one incoming command at a time can be in here
-    public synchronized boolean startGame(Context context) throws IllegalGameStateException {
+    /**
+     * Only one game at a time may be started per channel, while starts in different channels run in parallel. A start
+     * in a channel that a game is being started in already is rejected instead of waiting for it.
+     */
+    public boolean startGame(Context context) throws IllegalGameStateException {
+        long channelId = context.getChannel().getIdLong();
+        if (!this.starting.add(channelId)) {
+            RestActions.sendMessage(context.getChannel(), TextchatUtils.userAsMention(context.getInvoker().getIdLong())
+                    + ", a game is being started in this channel already!");
+            return false;
+        }
+
+        Timer.Sample sample = Timer.start();
+        String result = "failed";
+        try {
+            boolean started = doStartGame(context);
+            result = started ? "started" : "rejected";
+            return started;
+        } finally {
+            sample.stop(this.metricsService.gameStartTime(result));
+            this.starting.remove(channelId);
+        }
+    }
+
+    private boolean doStartGame(Context context) throws IllegalGameStateException {
 
         long commandCallerId = context.getInvoker().getIdLong();
         MessageChannel channel = context.getChannel();
@@ -108,15 +138,8 @@ public synchronized boolean startGame(Context context) throws IllegalGameStateEx
 
         ShardManager shardManager = requireNonNull(context.getJda().getShardManager());
         boolean autoOut = this.channelSettingsService.channel(channel.getIdLong()).getOrDefault().isAutoOut();
-        if (autoOut) {
-            for (long userId : setup.getInnedUsers()) {
-                boolean activeRecently = this.activityService.wasActiveRecently(userId);
-                if (!activeRecently) {
-                    setupAction.outUserDueToInactivity(userId, shardManager);
-                }
-            }
-        }
-        setup = setupAction.cleanUpInnedPlayers(shardManager);
+        Set<Long> inactive = autoOut ? this.activityService.inactiveOf(setup.getInnedUsers()) : Set.of();
+        setup = setupAction.outInactiveAndLeftPlayers(inactive, shardManager);
         Set<Long> inned = new HashSet<>(setup.getInnedUsers());
         if (!game.isAcceptablePlayerCount(inned.size(), setup.getMode())) {
             RestActions.sendMessage(channel, String.format(
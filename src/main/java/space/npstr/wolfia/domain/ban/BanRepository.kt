@@ -26,13 +26,6 @@ internal class BanRepository(
 	private val jooq: DSLContext,
 ) {
 
-	fun findOne(userId: Long, scope: Scope): Ban? {
-		return jooq
-			.selectFrom(Tables.DISCORD_USER)
-			.where(Tables.DISCORD_USER.USER_ID.eq(userId).and(Tables.DISCORD_USER.BAN.eq(scope.name)))
-			.fetchOneInto(Ban::class.java)
-	}
-
 	fun setScope(userId: Long, scope: Scope): Ban {
 		return jooq.transactionResult { config ->
 			config.dsl()
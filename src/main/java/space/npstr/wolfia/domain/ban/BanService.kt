@@ -16,24 +16,60 @@
  */
 package space.npstr.wolfia.domain.ban
 
+import java.util.concurrent.TimeUnit
 import org.springframework.stereotype.Service
 import space.npstr.wolfia.game.definitions.Scope
+import space.npstr.wolfia.game.tools.ExceptionLoggingExecutor
+import space.npstr.wolfia.system.logger
+import space.npstr.wolfia.utils.CopyOnWriteLongSet
 
 @Service
 class BanService private constructor(
-	private val repository: BanRepository
+	private val repository: BanRepository,
+	executor: ExceptionLoggingExecutor,
 ) {
 
+	/**
+	 * Checked by every in command, so we keep the few globally banned users in memory. Writes and reconciling are
+	 * serialized, so a reconcile can't drop a ban that happened while it was querying the database.
+	 */
+	private val globalBans = CopyOnWriteLongSet()
+	private val writeLock = Any()
+
+	init {
+		reconcile()
+		executor.scheduleAtFixedRate({ reconcile() }, 10, 10, TimeUnit.MINUTES)
+	}
+
 	fun isBanned(userId: Long): Boolean {
-		return repository.findOne(userId, Scope.GLOBAL) != null
+		return globalBans.contains(userId)
 	}
 
 	fun ban(userId: Long) {
-		repository.setScope(userId, Scope.GLOBAL)
+		synchronized(writeLock) {
+			repository.setScope(userId, Scope.GLOBAL)
+			globalBans.add(userId)
+		}
 	}
 
 	fun unban(userId: Long) {
-		repository.setScope(userId, Scope.NONE)
+		synchronized(writeLock) {
+			repository.setScope(userId, Scope.NONE)
+			globalBans.remove(userId)
+		}
+	}
+
+	/**
+	 * Reload the bans from the database, in case it has been edited by hand.
+	 */
+	fun reconcile() {
+		synchronized(writeLock) {
+			val before = globalBans.size()
+			globalBans.replaceAll(repository.findByScope(Scope.GLOBAL).map { it.userId })
+			if (before != globalBans.size()) {
+				logger().info("Reconciled global bans, {} before, {} after", before, globalBans.size())
+			}
+		}
 	}
 
 	fun getActiveBans(): List<Ban> {
@@ -25,13 +25,6 @@ internal class PrivacyRepository(
 	private val jooq: DSLContext,
 ) {
 
-	fun findOne(userId: Long): Privacy? {
-		return jooq
-			.selectFrom(Tables.DISCORD_USER)
-			.where(Tables.DISCORD_USER.USER_ID.eq(userId))
-			.fetchOneInto(Privacy::class.java)
-	}
-
 	fun setProcessData(userId: Long, processData: Boolean): Privacy {
 		return jooq.transactionResult { config ->
 			config.dsl()
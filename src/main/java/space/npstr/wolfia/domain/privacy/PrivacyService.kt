@@ -19,6 +19,7 @@ package space.npstr.wolfia.domain.privacy
 import org.springframework.context.ApplicationEventPublisher
 import org.springframework.stereotype.Service
 import space.npstr.wolfia.system.logger
+import space.npstr.wolfia.utils.CopyOnWriteLongSet
 
 @Service
 class PrivacyService private constructor(
@@ -26,12 +27,24 @@ class PrivacyService private constructor(
 	private val privacyRepository: PrivacyRepository,
 ) {
 
+	/**
+	 * Only very few users ever deny us processing their data, so instead of asking the database for every single
+	 * command we keep their ids in memory. The database stays the source of truth, all writes go through this service.
+	 */
+	private val dataProcessingDenied = CopyOnWriteLongSet()
+
+	init {
+		dataProcessingDenied.replaceAll(privacyRepository.findAllDeniedProcessData().map { it.userId })
+		logger().info("Loaded {} users who denied data processing", dataProcessingDenied.size())
+	}
+
 	fun isDataProcessingEnabled(userId: Long): Boolean {
-		return privacyRepository.findOne(userId)?.processData ?: true
+		return !dataProcessingDenied.contains(userId)
 	}
 
 	fun dataDelete(userId: Long) {
 		privacyRepository.setProcessData(userId, false)
+		dataProcessingDenied.add(userId)
 		try {
 			eventPublisher.publishEvent(PersonalDataDelete(userId))
 		} catch (e: Exception) {
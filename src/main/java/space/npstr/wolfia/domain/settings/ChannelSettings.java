@@ -25,6 +25,7 @@ public class ChannelSettings {
 
     private static final long DEFAULT_TAG_COOLDOWN_MINUTES = 5;
     private static final boolean DEFAULT_AUTO_OUT = false;
+    private static final boolean DEFAULT_GAME_CHANNEL = true;
 
     private final long channelId;
     private final Optional<Long> accessRoleId;
@@ -46,6 +47,13 @@ public ChannelSettings(long channelId, @Nullable Long accessRoleId, @Nullable Bo
         this.tags = Set.of(tags);
     }
 
+    /**
+     * @return the settings of a channel that has no entry in the database, matching the column defaults
+     */
+    public static ChannelSettings defaults(long channelId) {
+        return new ChannelSettings(channelId, null, null, DEFAULT_GAME_CHANNEL, null, 0, new Long[0]);
+    }
+
     public long getChannelId() {
         return this.channelId;
     }
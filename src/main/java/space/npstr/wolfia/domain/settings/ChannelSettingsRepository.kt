@@ -39,40 +39,25 @@ class ChannelSettingsRepository(
 			.fetchOneInto(ChannelSettings::class.java)
 	}
 
-	//this works since we dont commit the transaction
-	fun findOneOrDefault(channelId: Long): ChannelSettings {
-		return jooq
-			.insertInto(Tables.CHANNEL_SETTINGS)
-			.columns(Tables.CHANNEL_SETTINGS.CHANNEL_ID)
-			.values(channelId)
-			.onDuplicateKeyUpdate() // cant ignore, otherwise returning() will be empty on conflict
-			.set(Tables.CHANNEL_SETTINGS.CHANNEL_ID, channelId)
-			.returning()
-			.fetchSingle()
-			.into(ChannelSettings::class.java)
-	}
-
-	fun findOrDefault(channelIds: Collection<Long>): List<ChannelSettings> {
+	fun find(channelIds: Collection<Long>): List<ChannelSettings> {
 		return if (channelIds.isEmpty()) {
 			listOf()
 		} else {
-			var insert = jooq
-				.insertInto(Tables.CHANNEL_SETTINGS)
-				.columns(Tables.CHANNEL_SETTINGS.CHANNEL_ID)
-			for (channelId in channelIds) {
-				insert = insert.values(channelId)
-			}
-			// See https://github.com/jOOQ/jOOQ/issues/5214#issuecomment-213574749
-			val excluded = Tables.CHANNEL_SETTINGS.`as`("excluded")
-			insert
-				.onDuplicateKeyUpdate() // cant ignore, otherwise returning() will be empty on conflict
-				.set(Tables.CHANNEL_SETTINGS.CHANNEL_ID, excluded.CHANNEL_ID)
-				.returning()
-				.fetch()
-				.into(ChannelSettings::class.java)
+			jooq
+				.selectFrom(Tables.CHANNEL_SETTINGS)
+				.where(Tables.CHANNEL_SETTINGS.CHANNEL_ID.`in`(channelIds))
+				.fetchInto(ChannelSettings::class.java)
 		}
 	}
 
+	fun findAllGameChannelDisabled(): List<Long> {
+		return jooq
+			.select(Tables.CHANNEL_SETTINGS.CHANNEL_ID)
+			.from(Tables.CHANNEL_SETTINGS)
+			.where(Tables.CHANNEL_SETTINGS.IS_GAME_CHANNEL.isFalse)
+			.fetch(Tables.CHANNEL_SETTINGS.CHANNEL_ID)
+	}
+
 	fun setAccessRoleId(channelId: Long, accessRoleId: Long): ChannelSettings {
 		return set(channelId, Tables.CHANNEL_SETTINGS.ACCESS_ROLE_ID, accessRoleId)
 	}
@@ -16,18 +16,61 @@
  */
 package space.npstr.wolfia.domain.settings
 
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.prometheus.metrics.instrumentation.caffeine.CacheMetricsCollector
 import java.time.Clock
 import org.springframework.stereotype.Service
+import space.npstr.wolfia.system.logger
+import space.npstr.wolfia.utils.CopyOnWriteLongSet
 
 @Service
-class ChannelSettingsService(private val repository: ChannelSettingsRepository, private val clock: Clock) {
+class ChannelSettingsService(
+	private val repository: ChannelSettingsRepository,
+	private val clock: Clock,
+	cacheMetricsCollector: CacheMetricsCollector,
+) {
+
+	/**
+	 * Settings are read by every game related command, but rarely written. All writes go through this service and
+	 * update the cache with the row returned by the database, so the cache never serves outdated settings.
+	 * Channels without an entry are cached with their default settings, without creating a row for them.
+	 */
+	private val cache: Cache<Long, ChannelSettings> = Caffeine.newBuilder()
+		.maximumSize(10000)
+		.recordStats()
+		.build()
+
+	/**
+	 * Channels are game channels by default, and only few of them ever get disabled. Knowing all of the disabled ones
+	 * allows answering whether any channel is a game channel without a lookup per channel.
+	 */
+	private val gameChannelDisabled = CopyOnWriteLongSet()
+
+	init {
+		cacheMetricsCollector.addCache("channelSettings", cache)
+		gameChannelDisabled.replaceAll(repository.findAllGameChannelDisabled())
+		logger().info("Loaded {} channels with games disabled", gameChannelDisabled.size())
+	}
+
+	/**
+	 * Same as `channel(channelId).getOrDefault().isGameChannel`, but answered from memory.
+	 */
+	fun isGameChannel(channelId: Long): Boolean {
+		return !gameChannelDisabled.contains(channelId)
+	}
+
 	fun channels(channelIds: Collection<Long>): MultiAction {
 		return MultiAction(channelIds)
 	}
 
 	inner class MultiAction internal constructor(private val channelIds: Collection<Long>) {
 		fun getOrDefault(): List<ChannelSettings> {
-			return repository.findOrDefault(channelIds)
+			val settings = cache.getAll(channelIds) { missing ->
+				val found = repository.find(missing).associateBy { it.channelId }
+				missing.associateWith { found[it] ?: ChannelSettings.defaults(it) }
+			}
+			return settings.values.toList()
 		}
 	}
 
@@ -43,35 +86,35 @@ class ChannelSettingsService(private val repository: ChannelSettingsRepository,
 
 	inner class Action internal constructor(private val channelId: Long) {
 		fun getOrDefault(): ChannelSettings {
-			return repository.findOneOrDefault(channelId)
+			return cache.get(channelId) { repository.findOne(it) ?: ChannelSettings.defaults(it) }
 		}
 
 		fun setAccessRoleId(accessRoleId: Long): ChannelSettings {
-			return repository.setAccessRoleId(channelId, accessRoleId)
+			return cached(repository.setAccessRoleId(channelId, accessRoleId))
 		}
 
 		fun enableAutoOut(): ChannelSettings {
-			return repository.setAutoOut(channelId, true)
+			return cached(repository.setAutoOut(channelId, true))
 		}
 
 		fun disableAutoOut(): ChannelSettings {
-			return repository.setAutoOut(channelId, false)
+			return cached(repository.setAutoOut(channelId, false))
 		}
 
 		fun enableGameChannel(): ChannelSettings {
-			return repository.setGameChannel(channelId, true)
+			return cached(repository.setGameChannel(channelId, true))
 		}
 
 		fun disableGameChannel(): ChannelSettings {
-			return repository.setGameChannel(channelId, false)
+			return cached(repository.setGameChannel(channelId, false))
 		}
 
 		fun setTagCooldown(tagCooldown: Long): ChannelSettings {
-			return repository.setTagCooldown(channelId, tagCooldown)
+			return cached(repository.setTagCooldown(channelId, tagCooldown))
 		}
 
 		fun tagUsed(): ChannelSettings {
-			return repository.setTagLastUsed(channelId, clock.millis())
+			return cached(repository.setTagLastUsed(channelId, clock.millis()))
 		}
 
 		fun addTag(tag: Long): ChannelSettings {
@@ -82,7 +125,7 @@ class ChannelSettingsService(private val repository: ChannelSettingsRepository,
 			return if (tags.isEmpty()) {
 				getOrDefault()
 			} else {
-				repository.addTags(channelId, tags)
+				cached(repository.addTags(channelId, tags))
 			}
 		}
 
@@ -94,12 +137,24 @@ class ChannelSettingsService(private val repository: ChannelSettingsRepository,
 			return if (tags.isEmpty()) {
 				getOrDefault()
 			} else {
-				repository.removeTags(channelId, tags)
+				cached(repository.removeTags(channelId, tags))
 			}
 		}
 
 		fun reset() {
 			repository.delete(channelId)
+			cache.invalidate(channelId)
+			gameChannelDisabled.remove(channelId)
+		}
+
+		private fun cached(settings: ChannelSettings): ChannelSettings {
+			cache.put(channelId, settings)
+			if (settings.isGameChannel) {
+				gameChannelDisabled.remove(channelId)
+			} else {
+				gameChannelDisabled.add(channelId)
+			}
+			return settings
 		}
 	}
 }
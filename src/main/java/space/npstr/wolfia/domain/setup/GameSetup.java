@@ -45,6 +45,28 @@ public GameSetup(long channelId, Long[] innedUsers, @Nullable String game, @Null
         this.dayLength = Optional.ofNullable(dayLength).map(Duration::ofMillis);
     }
 
+    private GameSetup(GameSetup setup, Set<Long> innedUsers) {
+        this.channelId = setup.channelId;
+        this.innedUsers = Set.copyOf(innedUsers);
+        this.game = setup.game;
+        this.mode = setup.mode;
+        this.dayLength = setup.dayLength;
+    }
+
+    /**
+     * @return the setup of a channel that has no entry in the database, matching the column defaults
+     */
+    public static GameSetup defaults(long channelId) {
+        return new GameSetup(channelId, new Long[0], null, null, null);
+    }
+
+    /**
+     * @return a copy of this setup with the passed in users inned instead
+     */
+    public GameSetup withInnedUsers(Set<Long> innedUsers) {
+        return new GameSetup(this, innedUsers);
+    }
+
     public long getChannelId() {
         return this.channelId;
     }
@@ -17,8 +17,10 @@
 package space.npstr.wolfia.domain.setup
 
 import java.time.Duration
+import org.jooq.Condition
 import org.jooq.DSLContext
 import org.jooq.Field
+import org.jooq.impl.DSL
 import org.springframework.stereotype.Repository
 import space.npstr.wolfia.db.ExtendedPostgresDSL
 import space.npstr.wolfia.db.gen.Tables
@@ -37,32 +39,37 @@ internal class GameSetupRepository(
 			.fetchOneInto(GameSetup::class.java)
 	}
 
-	//this works since we dont commit the transaction
-	fun findOneOrDefault(channelId: Long): GameSetup {
-		return jooq
-			.insertInto(Tables.GAME_SETUP)
-			.columns(Tables.GAME_SETUP.CHANNEL_ID)
-			.values(channelId)
-			.onDuplicateKeyUpdate() // cant ignore, otherwise returning() will be empty on conflict
-			.set(Tables.GAME_SETUP.CHANNEL_ID, channelId)
-			.returning()
-			.fetchSingleInto(GameSetup::class.java)
-	}
+	/**
+	 * Out the users from all setups with auto out enabled that they are inned in, with a single update.
+	 *
+	 * @return the outed users, keyed by the channel id of the setup they were outed from
+	 */
+	fun outUsersFromAutoOutSetups(userIds: Collection<Long>): Map<Long, Set<Long>> {
+		if (userIds.isEmpty()) return mapOf()
+		val userIdsArray = userIds.toTypedArray()
 
-	fun findAutoOutSetupsWhereUserIsInned(userId: Long): List<GameSetup> {
-		return jooq
-			.select(
-				Tables.GAME_SETUP.CHANNEL_ID,
-				Tables.GAME_SETUP.INNED_USERS,
-				Tables.GAME_SETUP.GAME,
-				Tables.GAME_SETUP.MODE,
-				Tables.GAME_SETUP.DAY_LENGTH
-			)
-			.from(Tables.GAME_SETUP)
-			.join(Tables.CHANNEL_SETTINGS).on(Tables.GAME_SETUP.CHANNEL_ID.eq(Tables.CHANNEL_SETTINGS.CHANNEL_ID))
-			.where(Tables.CHANNEL_SETTINGS.AUTO_OUT.isTrue)
-			.and(Tables.GAME_SETUP.INNED_USERS.contains(arrayOf(userId)))
-			.fetchInto(GameSetup::class.java)
+		return jooq.transactionResult { config ->
+			val context = config.dsl()
+			// lock the affected setups, so nobody ins in between reading and updating them
+			val affected = context
+				.select(Tables.GAME_SETUP.CHANNEL_ID, Tables.GAME_SETUP.INNED_USERS)
+				.from(Tables.GAME_SETUP)
+				.join(Tables.CHANNEL_SETTINGS).on(Tables.GAME_SETUP.CHANNEL_ID.eq(Tables.CHANNEL_SETTINGS.CHANNEL_ID))
+				.where(Tables.CHANNEL_SETTINGS.AUTO_OUT.isTrue)
+				.and(innedAnyOf(userIds))
+				.forUpdate().of(Tables.GAME_SETUP)
+				.fetch()
+			if (affected.isEmpty()) return@transactionResult mapOf()
+
+			context.update(Tables.GAME_SETUP)
+				.set(Tables.GAME_SETUP.INNED_USERS, ExtendedPostgresDSL.arrayDiff(Tables.GAME_SETUP.INNED_USERS, *userIdsArray))
+				.where(Tables.GAME_SETUP.CHANNEL_ID.`in`(affected.map { it.value1() }))
+				.execute()
+
+			affected.associate { record ->
+				record.value1() to record.value2().filter { userIds.contains(it) }.toSet()
+			}
+		}
 	}
 
 	fun setGame(channelId: Long, game: Games): GameSetup {
@@ -105,6 +112,31 @@ internal class GameSetupRepository(
 		}
 	}
 
+	/**
+	 * In and out users with a single statement. The sets are expected to be disjoint.
+	 */
+	fun inAndOutUsers(channelId: Long, innedUserIds: Collection<Long>, outedUserIds: Collection<Long>): GameSetup {
+		if (outedUserIds.isEmpty()) return inUsers(channelId, innedUserIds)
+		if (innedUserIds.isEmpty()) return outUsers(channelId, outedUserIds)
+		val innedArray = innedUserIds.toTypedArray()
+		val outedArray = outedUserIds.toTypedArray()
+		return jooq.transactionResult { config ->
+			config.dsl()
+				.insertInto(Tables.GAME_SETUP)
+				.columns(Tables.GAME_SETUP.CHANNEL_ID, Tables.GAME_SETUP.INNED_USERS)
+				.values(channelId, innedArray)
+				.onDuplicateKeyUpdate()
+				.set(
+					Tables.GAME_SETUP.INNED_USERS, ExtendedPostgresDSL.arrayDiff(
+						ExtendedPostgresDSL.arrayAppendDistinct(Tables.GAME_SETUP.INNED_USERS, *innedArray),
+						*outedArray
+					)
+				)
+				.returning()
+				.fetchSingleInto(GameSetup::class.java)
+		}
+	}
+
 	fun delete(channelId: Long): Int {
 		return jooq.transactionResult { config ->
 			config.dsl()
@@ -114,6 +146,11 @@ internal class GameSetupRepository(
 		}
 	}
 
+	// array overlap, backed by the GIN index on inned_users, see V19 migration
+	private fun innedAnyOf(userIds: Collection<Long>): Condition {
+		return DSL.condition("{0} && {1}", Tables.GAME_SETUP.INNED_USERS, DSL.value(userIds.toTypedArray()))
+	}
+
 	private fun <F> set(channelId: Long, field: Field<F>, value: F): GameSetup {
 		return jooq.transactionResult { config ->
 			config.dsl()
@@ -16,24 +16,70 @@
  */
 package space.npstr.wolfia.domain.setup
 
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.prometheus.metrics.instrumentation.caffeine.CacheMetricsCollector
 import java.time.Duration
-import java.util.function.Consumer
+import java.util.concurrent.CompletableFuture
 import net.dv8tion.jda.api.sharding.ShardManager
 import org.springframework.stereotype.Service
+import space.npstr.wolfia.config.properties.SetupConfig
 import space.npstr.wolfia.game.GameInfo.GameMode
 import space.npstr.wolfia.game.definitions.Games
+import space.npstr.wolfia.game.tools.ExceptionLoggingExecutor
+import space.npstr.wolfia.system.metrics.MetricsService
 import space.npstr.wolfia.utils.discord.TextchatUtils
 
 @Service
 class GameSetupService private constructor(
-	private val repository: GameSetupRepository
+	private val repository: GameSetupRepository,
+	cacheMetricsCollector: CacheMetricsCollector,
+	setupConfig: SetupConfig,
+	mainExceptionLoggingExecutor: ExceptionLoggingExecutor,
+	metricsService: MetricsService,
 ) {
 
-	fun outUserDueToInactivity(userId: Long, shardManager: ShardManager) {
-		val setups = repository.findAutoOutSetupsWhereUserIsInned(userId)
-		for (setup in setups) {
-			channel(setup.channelId)
-				.outUserDueToInactivity(userId, shardManager)
+	/**
+	 * Setups are read by status, in, out and start, often many times during sign up. All writes go through this
+	 * service and update the cache with the row returned by the database. Channels without an entry are cached with
+	 * their default setup, without creating a row for them.
+	 */
+	private val cache: Cache<Long, GameSetup> = Caffeine.newBuilder()
+		.maximumSize(10000)
+		.recordStats()
+		.build()
+
+	/**
+	 * Ins and outs of a channel go through here, see [Action.inUserAsync] for coalescing sign up bursts. Other writes
+	 * to a setup run [SignUpCoalescer.exclusive], so they are ordered with the ins and outs of their channel.
+	 */
+	private val signUps = SignUpCoalescer(
+		Duration.ofMillis(setupConfig.signUpWindowMillis),
+		mainExceptionLoggingExecutor,
+		metricsService.signUpBatchSize(),
+		repository::inAndOutUsers,
+	) { cache.put(it.channelId, it) }
+
+	init {
+		cacheMetricsCollector.addCache("gameSetup", cache)
+	}
+
+	/**
+	 * Out the users from all setups with auto out enabled that they are inned in, and let each affected channel know
+	 * with a single message.
+	 */
+	fun outUsersDueToInactivity(userIds: Set<Long>, shardManager: ShardManager) {
+		val outed = repository.outUsersFromAutoOutSetups(userIds)
+		outed.keys.forEach { channelId -> signUps.exclusive(channelId) { cache.invalidate(channelId) } }
+		for ((channelId, outedUsers) in outed) {
+			val channel = shardManager.getTextChannelById(channelId) ?: continue
+			// stay well below the message length limit
+			outedUsers.chunked(50).forEach { chunk ->
+				channel.sendMessage(
+					chunk.joinToString(", ") { TextchatUtils.userAsMention(it) }
+						+ " became inactive and were outed from the game setup."
+				).queue()
+			}
 		}
 	}
 
@@ -49,20 +95,23 @@ class GameSetupService private constructor(
 
 	inner class Action internal constructor(private val channelId: Long) {
 
+		/**
+		 * Includes ins and outs that have been submitted, but not written yet.
+		 */
 		fun getOrDefault(): GameSetup {
-			return repository.findOneOrDefault(channelId)
+			return signUps.withPending(cache.get(channelId) { repository.findOne(it) ?: GameSetup.defaults(it) })
 		}
 
 		fun setGame(game: Games): GameSetup {
-			return repository.setGame(channelId, game)
+			return cached { repository.setGame(channelId, game) }
 		}
 
 		fun setMode(mode: GameMode): GameSetup {
-			return repository.setMode(channelId, mode)
+			return cached { repository.setMode(channelId, mode) }
 		}
 
 		fun setDayLength(duration: Duration): GameSetup {
-			return repository.setDayLength(channelId, duration)
+			return cached { repository.setDayLength(channelId, duration) }
 		}
 
 		fun inUser(userId: Long): GameSetup {
@@ -72,30 +121,35 @@ class GameSetupService private constructor(
 		fun inUsers(userIds: Set<Long>): GameSetup {
 			return if (userIds.isEmpty()) {
 				getOrDefault()
-			} else repository.inUsers(channelId, userIds)
+			} else signUps.apply(channelId, userIds, true)
 		}
 
-		fun outUser(userId: Long): GameSetup {
-			return outUsers(setOf(userId))
+		/**
+		 * In the user together with other ins and outs of this channel that happen within the sign up window.
+		 *
+		 * @return the setup as written to the database
+		 */
+		fun inUserAsync(userId: Long): CompletableFuture<GameSetup> {
+			return signUps.submit(channelId, setOf(userId), true)
 		}
 
-		fun outUserDueToInactivity(userId: Long, shardManager: ShardManager): GameSetup {
-			val setup = getOrDefault()
-			if (!setup.innedUsers.contains(userId)) {
-				return setup
-			}
-			val channel = shardManager.getTextChannelById(setup.channelId)
-			channel?.sendMessage(
-				TextchatUtils.userAsMention(userId)
-					+ " became inactive and were outed from the game setup."
-			)?.queue()
-			return outUser(userId)
+		fun outUser(userId: Long): GameSetup {
+			return outUsers(setOf(userId))
 		}
 
 		fun outUsers(userIds: Set<Long>): GameSetup {
 			return if (userIds.isEmpty()) {
 				getOrDefault()
-			} else repository.outUsers(channelId, userIds)
+			} else signUps.apply(channelId, userIds, false)
+		}
+
+		/**
+		 * Out the user together with other ins and outs of this channel that happen within the sign up window.
+		 *
+		 * @return the setup as written to the database
+		 */
+		fun outUserAsync(userId: Long): CompletableFuture<GameSetup> {
+			return signUps.submit(channelId, setOf(userId), false)
 		}
 
 		fun clearInnedUsers(): GameSetup {
@@ -103,27 +157,60 @@ class GameSetupService private constructor(
 		}
 
 		fun reset() {
-			repository.delete(channelId)
+			signUps.exclusive(channelId) {
+				repository.delete(channelId)
+				cache.invalidate(channelId)
+			}
 		}
 
 		/**
 		 * Like [Action.getOrDefault], but cleans up left/inactive players first if possible.
 		 */
 		fun cleanUpInnedPlayers(shardManager: ShardManager): GameSetup {
+			return outInactiveAndLeftPlayers(setOf(), shardManager)
+		}
+
+		/**
+		 * Like [Action.cleanUpInnedPlayers], and also outs the passed in inactive users, all with a single write.
+		 */
+		fun outInactiveAndLeftPlayers(inactiveUserIds: Set<Long>, shardManager: ShardManager): GameSetup {
 			val setup = getOrDefault()
-			val channel = shardManager.getTextChannelById(channelId) ?: return setup
-			val toBeOuted: MutableSet<Long> = HashSet()
-			val guild = channel.guild
-			setup.innedUsers.forEach(Consumer { userId: Long ->
-				if (guild.getMemberById(userId) == null) {
-					toBeOuted.add(userId)
+			val inactive = setup.innedUsers.filter { inactiveUserIds.contains(it) }
+			val channel = shardManager.getTextChannelById(channelId)
+			val left = if (channel == null) listOf() else {
+				val guild = channel.guild
+				setup.innedUsers.filter { !inactive.contains(it) && guild.getMemberById(it) == null }
+			}
+			if (inactive.isEmpty() && left.isEmpty()) {
+				return setup
+			}
+
+			if (channel != null) {
+				// stay well below the message length limit
+				inactive.chunked(50).forEach { chunk ->
+					channel.sendMessage(
+						chunk.joinToString(", ") { TextchatUtils.userAsMention(it) }
+							+ " became inactive and were outed from the game setup."
+					).queue()
+				}
+				left.chunked(50).forEach { chunk ->
 					channel.sendMessage(
-						TextchatUtils.userAsMention(userId)
-							+ " has left this guild and was outed from the game setup."
+						chunk.joinToString(", ") { TextchatUtils.userAsMention(it) }
+							+ (if (chunk.size == 1) " has" else " have")
+							+ " left this guild and " + (if (chunk.size == 1) "was" else "were")
+							+ " outed from the game setup."
 					).queue()
 				}
-			})
-			return outUsers(toBeOuted)
+			}
+			return outUsers((inactive + left).toSet())
+		}
+
+		private fun cached(write: () -> GameSetup): GameSetup {
+			return signUps.exclusive(channelId) {
+				val setup = write()
+				cache.put(setup.channelId, setup)
+				setup
+			}
 		}
 	}
 }
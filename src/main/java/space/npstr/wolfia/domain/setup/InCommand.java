@@ -21,7 +21,9 @@
 import java.util.Set;
 import java.util.stream.Collectors;
 import net.dv8tion.jda.api.entities.User;
+import org.jspecify.annotations.Nullable;
 import space.npstr.wolfia.commands.BaseCommand;
+import space.npstr.wolfia.commands.ChannelMailboxes;
 import space.npstr.wolfia.commands.CommandContext;
 import space.npstr.wolfia.commands.GuildCommandContext;
 import space.npstr.wolfia.commands.PublicCommand;
@@ -35,6 +37,8 @@
 @Command
 public class InCommand implements BaseCommand, PublicCommand {
 
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(InCommand.class);
+
     public static final String TRIGGER = "in";
 
     private final BanService banService;
@@ -42,14 +46,16 @@ public class InCommand implements BaseCommand, PublicCommand {
     private final PrivateRoomService privateRoomService;
     private final GameSetupRender render;
     private final GameRegistry gameRegistry;
+    private final ChannelMailboxes channelMailboxes;
 
     public InCommand(BanService banService, GameSetupService gameSetupService, PrivateRoomService privateRoomService,
-                     GameSetupRender render, GameRegistry gameRegistry) {
+                     GameSetupRender render, GameRegistry gameRegistry, ChannelMailboxes channelMailboxes) {
         this.banService = banService;
         this.gameSetupService = gameSetupService;
         this.privateRoomService = privateRoomService;
         this.render = render;
         this.gameRegistry = gameRegistry;
+        this.channelMailboxes = channelMailboxes;
     }
 
     @Override
@@ -111,9 +117,28 @@ public boolean execute(CommandContext commandContext) {
             context.replyWithMention("you have inned already.");
             return false;
         }
-        setupAction.inUser(context.invoker.getIdLong());
-        GameSetup setup = setupAction.cleanUpInnedPlayers(requireNonNull(context.getJda().getShardManager()));
-        context.reply(this.render.render(setup, context));
+        // sign up bursts after a ping are written together, so we reply from the mailbox of the channel once our in
+        // has been written, instead of on the thread that wrote the batch
+        setupAction.inUserAsync(context.invoker.getIdLong())
+                .whenComplete((__, t) -> this.channelMailboxes.dispatch(context.textChannel.getIdLong(),
+                        () -> replyWithSetup(context, setupAction, t)));
         return true;
     }
+
+    private void replyWithSetup(GuildCommandContext context, GameSetupService.Action setupAction, @Nullable Throwable t) {
+        if (t != null) {
+            log.error("Failed to write the in of user {} in channel {}", context.invoker.getIdLong(),
+                    context.textChannel.getIdLong(), t);
+            context.replyWithMention("something went wrong, please try again.");
+            return;
+        }
+        try {
+            GameSetup setup = setupAction.cleanUpInnedPlayers(requireNonNull(context.getJda().getShardManager()));
+            context.reply(this.render.render(setup, context));
+        } catch (Exception e) {
+            log.error("Failed to reply to the in of user {} in channel {}", context.invoker.getIdLong(),
+                    context.textChannel.getIdLong(), e);
+            context.replyWithMention("something went wrong, please try again.");
+        }
+    }
 }
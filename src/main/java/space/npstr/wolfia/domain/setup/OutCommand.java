@@ -22,7 +22,9 @@
 import java.util.stream.Collectors;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.User;
+import org.jspecify.annotations.Nullable;
 import space.npstr.wolfia.commands.BaseCommand;
+import space.npstr.wolfia.commands.ChannelMailboxes;
 import space.npstr.wolfia.commands.CommandContext;
 import space.npstr.wolfia.commands.GuildCommandContext;
 import space.npstr.wolfia.commands.PublicCommand;
@@ -35,20 +37,24 @@
 @Command
 public class OutCommand implements BaseCommand, PublicCommand {
 
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(OutCommand.class);
+
     public static final String TRIGGER = "out";
 
     private final GameSetupService gameSetupService;
     private final PrivateRoomService privateRoomService;
     private final GameSetupRender render;
     private final GameRegistry gameRegistry;
+    private final ChannelMailboxes channelMailboxes;
 
     public OutCommand(GameSetupService gameSetupService, PrivateRoomService privateRoomService, GameSetupRender render,
-                      GameRegistry gameRegistry) {
+                      GameRegistry gameRegistry, ChannelMailboxes channelMailboxes) {
 
         this.gameSetupService = gameSetupService;
         this.privateRoomService = privateRoomService;
         this.render = render;
         this.gameRegistry = gameRegistry;
+        this.channelMailboxes = channelMailboxes;
     }
 
     @Override
@@ -106,13 +112,29 @@ public boolean execute(CommandContext commandContext) {
         } else {
             if (setupAction.getOrDefault().isIn(context.invoker.getIdLong())) {
                 //handling a regular out
-                setupAction.outUser(context.invoker.getIdLong());
-                GameSetup setup = setupAction.cleanUpInnedPlayers(requireNonNull(context.getJda().getShardManager()));
-                context.reply(this.render.render(setup, context));
+                setupAction.outUserAsync(context.invoker.getIdLong())
+                        .whenComplete((__, t) -> this.channelMailboxes.dispatch(context.textChannel.getIdLong(),
+                                () -> replyWithSetup(context, setupAction, t)));
                 return true;
             }
         }
         return false;
     }
 
+    private void replyWithSetup(GuildCommandContext context, GameSetupService.Action setupAction, @Nullable Throwable t) {
+        if (t != null) {
+            log.error("Failed to write the out of user {} in channel {}", context.invoker.getIdLong(),
+                    context.textChannel.getIdLong(), t);
+            context.replyWithMention("something went wrong, please try again.");
+            return;
+        }
+        try {
+            GameSetup setup = setupAction.cleanUpInnedPlayers(requireNonNull(context.getJda().getShardManager()));
+            context.reply(this.render.render(setup, context));
+        } catch (Exception e) {
+            log.error("Failed to reply to the out of user {} in channel {}", context.invoker.getIdLong(),
+                    context.textChannel.getIdLong(), e);
+            context.replyWithMention("something went wrong, please try again.");
+        }
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package space.npstr.wolfia.domain.setup
+
+import io.micrometer.core.instrument.DistributionSummary
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Collects the ins and outs of a channel for a short window and writes them to the database together, so that a burst
+ * of sign ups rewrites the inned users of a channel once instead of once per user. Later intents of a user override
+ * earlier ones of the same window.
+ *
+ * Writes of a channel run one after another under a lock that is shared with other writes to the same setup, see
+ * [exclusive], so that they reach the database and the [written] callback in the order they were made.
+ */
+internal class SignUpCoalescer(
+	private val window: Duration,
+	private val scheduler: ScheduledExecutorService,
+	private val batchSize: DistributionSummary,
+	private val write: (channelId: Long, innedUserIds: Set<Long>, outedUserIds: Set<Long>) -> GameSetup,
+	private val written: (GameSetup) -> Unit,
+) {
+
+	private class Batch {
+		// user id to whether the user wants to be in, guarded by this
+		private val intents = LinkedHashMap<Long, Boolean>()
+		val waiters = ArrayList<CompletableFuture<GameSetup>>()
+
+		@Synchronized
+		fun add(userIds: Set<Long>, inned: Boolean) {
+			userIds.forEach { intents[it] = inned }
+		}
+
+		@Synchronized
+		fun addTo(target: MutableMap<Long, Boolean>) {
+			target.putAll(intents)
+		}
+
+		@Synchronized
+		fun applyTo(innedUsers: Set<Long>): Set<Long> {
+			val result = HashSet(innedUsers)
+			intents.forEach { (userId, inned) -> if (inned) result.add(userId) else result.remove(userId) }
+			return result
+		}
+	}
+
+	private val pending = ConcurrentHashMap<Long, Batch>()
+	private val locks = Array(STRIPES) { ReentrantLock() }
+
+	/**
+	 * Queue the intent to in or out the users, to be written with the next flush of the channel.
+	 *
+	 * @return the setup as it was written, completed after the flush
+	 */
+	fun submit(channelId: Long, userIds: Set<Long>, inned: Boolean): CompletableFuture<GameSetup> {
+		val waiter = CompletableFuture<GameSetup>()
+		pending.compute(channelId) { _, existing ->
+			val batch = existing ?: Batch().also {
+				scheduler.schedule({ flush(channelId) }, window.toMillis(), TimeUnit.MILLISECONDS)
+			}
+			batch.add(userIds, inned)
+			batch.waiters.add(waiter)
+			batch
+		}
+		return waiter
+	}
+
+	/**
+	 * In or out the users right away, together with any intents that are pending for the channel.
+	 */
+	fun apply(channelId: Long, userIds: Set<Long>, inned: Boolean): GameSetup {
+		return locked(channelId) { writePending(channelId, userIds.associateWith { inned }) }
+	}
+
+	/**
+	 * Write the pending intents of the channel, if there are any.
+	 */
+	fun flush(channelId: Long) {
+		exclusive(channelId) { }
+	}
+
+	/**
+	 * Run the block after any pending intents of the channel have been written, while no other writes to the setup of
+	 * the channel may happen.
+	 */
+	fun <T> exclusive(channelId: Long, block: () -> T): T {
+		return locked(channelId) {
+			if (pending.containsKey(channelId)) {
+				writePending(channelId, emptyMap())
+			}
+			block()
+		}
+	}
+
+	/**
+	 * @return the setup with the pending intents of its channel applied
+	 */
+	fun withPending(setup: GameSetup): GameSetup {
+		val batch = pending[setup.channelId] ?: return setup
+		return setup.withInnedUsers(batch.applyTo(setup.innedUsers))
+	}
+
+	/**
+	 * Waiters are completed only after the lock has been released, so that whatever they do next does not hold up
+	 * other writes.
+	 */
+	private fun <T> locked(channelId: Long, block: Completions.() -> T): T {
+		val completions = Completions()
+		try {
+			return lockOf(channelId).withLock { completions.block() }
+		} finally {
+			completions.run()
+		}
+	}
+
+	private fun Completions.writePending(channelId: Long, additional: Map<Long, Boolean>): GameSetup {
+		val intents = LinkedHashMap<Long, Boolean>()
+		// removing the batch from the map ends it, later submits start the next one
+		val batch = pending.remove(channelId)
+		batch?.addTo(intents)
+		intents.putAll(additional)
+		val waiters = batch?.waiters ?: emptyList()
+
+		val setup = try {
+			batchSize.record(intents.size.toDouble())
+			write(
+				channelId,
+				intents.filterValues { it }.keys,
+				intents.filterValues { !it }.keys,
+			).also(written)
+		} catch (e: Exception) {
+			waiters.forEach { waiter -> add { waiter.completeExceptionally(e) } }
+			throw e
+		}
+		waiters.forEach { waiter -> add { waiter.complete(setup) } }
+		return setup
+	}
+
+	private fun lockOf(channelId: Long): ReentrantLock {
+		return locks[Math.floorMod(channelId xor (channelId ushr 32), STRIPES.toLong()).toInt()]
+	}
+
+	private class Completions {
+		private val completions = ArrayList<() -> Unit>()
+
+		fun add(completion: () -> Unit) {
+			completions.add(completion)
+		}
+
+		fun run() {
+			completions.forEach { it() }
+		}
+	}
+
+	companion object {
+		private const val STRIPES = 64
+	}
+}
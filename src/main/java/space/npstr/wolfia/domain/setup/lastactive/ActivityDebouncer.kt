@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.domain.setup.lastactive
+
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * Remembers when the activity of a user was last recorded, so repeats within the window can be ignored.
+ *
+ * Users are hashed onto a fixed amount of slots, each holding a user id and a timestamp, so memory use is constant
+ * and nothing is allocated per event. Users sharing a slot evict each other, which at worst means that an activity
+ * gets recorded again, never that one is lost.
+ */
+internal class ActivityDebouncer(slots: Int, private val windowMillis: Long) {
+
+	private val size = Integer.highestOneBit(maxOf(1, slots - 1)) shl 1
+	private val mask = size - 1
+
+	// user id at 2 * slot, timestamp of its last recording at 2 * slot + 1
+	private val entries = AtomicLongArray(2 * size)
+
+	/**
+	 * @return true if the activity should be recorded, false if the user was recorded within the window
+	 */
+	fun shouldRecord(userId: Long, nowMillis: Long): Boolean {
+		val slot = slot(userId) * 2
+		if (entries.get(slot) == userId && nowMillis - entries.get(slot + 1) < windowMillis) {
+			return false
+		}
+		// not atomic across both fields: a concurrent write for another user of the same slot may pair its id with
+		// our timestamp or vice versa, which only shifts the window of a user that was just recorded anyway
+		entries.set(slot + 1, nowMillis)
+		entries.set(slot, userId)
+		return true
+	}
+
+	private fun slot(userId: Long): Int {
+		// snowflakes share their high bits (timestamp) and low bits (worker and increment) with their neighbours
+		val hash = userId * -0x61c8864680b583ebL // 0x9E3779B97F4A7C15
+		return (hash ushr 32).toInt() and mask
+	}
+}
@@ -16,49 +16,134 @@
  */
 package space.npstr.wolfia.domain.setup.lastactive
 
+import java.time.Clock
 import java.time.Duration
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit.MINUTES
 import java.util.concurrent.TimeUnit.SECONDS
 import net.dv8tion.jda.api.entities.User
+import org.springframework.context.ApplicationEventPublisher
+import org.springframework.context.annotation.Lazy
 import org.springframework.scheduling.annotation.Scheduled
 import org.springframework.stereotype.Service
+import space.npstr.wolfia.config.properties.ActivityConfig
 import space.npstr.wolfia.config.properties.WolfiaConfig
 import space.npstr.wolfia.system.logger
+import space.npstr.wolfia.system.metrics.MetricsService
 
+/**
+ * Keeps track of when users were last active in memory, and lets them expire from there. The activity is written
+ * behind to the database, only to be restored from there after a restart.
+ */
 @Service
+@Lazy(false) // restore the activity from before a restart right away, so that it can expire
 class ActivityService(
 	private val repository: LastActiveRepository,
 	private val wolfiaConfig: WolfiaConfig,
+	activityConfig: ActivityConfig,
+	metricsService: MetricsService,
+	private val clock: Clock,
+	private val eventPublisher: ApplicationEventPublisher,
 ) {
 
 	companion object {
 		private val DEFAULT_ACTIVITY_TIMEOUT = Duration.ofMinutes(20)
 	}
 
+	/**
+	 * Published in batches of at most [ActivityConfig.getSweepBatchSize] users.
+	 */
+	data class UsersBecameInactive(
+		val userIds: Set<Long>,
+	)
+
+	private val store = LastActiveStore()
+
+	// users whose activity has not been written to the database yet
 	private val buffer: MutableSet<Long> = ConcurrentHashMap.newKeySet()
 
 	private val activityTimeout: Duration
 		get() = if (wolfiaConfig.isDebug) Duration.ofSeconds(30) else DEFAULT_ACTIVITY_TIMEOUT
 
+	// the window has to stay well below the timeout, or users could expire while being active
+	private val debouncer = ActivityDebouncer(
+		activityConfig.debounceSlots,
+		minOf(activityConfig.debounceMillis, activityTimeout.toMillis() / 2),
+	)
+	private val debounced = metricsService.activityEvents("debounced")
+	private val recorded = metricsService.activityEvents("recorded")
+	private val sweepBatchSize = activityConfig.sweepBatchSize
+	private val memorySweepTime = metricsService.activitySweepTime("memory")
+	private val memorySweepBatch = metricsService.activitySweepBatchSize("memory")
+	private val databaseSweepTime = metricsService.activitySweepTime("database")
+	private val databaseSweepBatch = metricsService.activitySweepBatchSize("database")
+
+	init {
+		val restored = repository.findAllExpiries()
+		restored.forEach { (userId, expires) -> store.record(userId, expires) }
+		logger().info("Restored the activity of {} users", restored.size)
+	}
+
 	fun recordActivity(user: User) {
 		recordActivity(user.idLong)
 	}
 
 	fun recordActivity(userId: Long) {
+		val now = clock.millis()
+		if (!debouncer.shouldRecord(userId, now)) {
+			debounced.increment()
+			return
+		}
+		recorded.increment()
+		store.record(userId, now + activityTimeout.toMillis())
 		buffer.add(userId)
 	}
 
+	@Scheduled(fixedDelay = 1, timeUnit = SECONDS, initialDelay = 1)
+	internal fun expire() {
+		val now = clock.millis()
+		memorySweepTime.record(Runnable {
+			do {
+				val expired = store.expire(now, sweepBatchSize)
+				if (expired.isNotEmpty()) {
+					memorySweepBatch.record(expired.size.toDouble())
+					eventPublisher.publishEvent(UsersBecameInactive(expired.toSet()))
+				}
+			} while (expired.size == sweepBatchSize)
+		})
+	}
+
 	@Scheduled(fixedDelay = 1, timeUnit = SECONDS, initialDelay = 1)
 	internal fun flush() {
 		if (buffer.isEmpty()) return
 
 		val snapshot = HashSet(buffer)
 		buffer.removeAll(snapshot)
+		val expiries = HashMap<Long, Long>()
+		snapshot.forEach { userId -> store.expiresOf(userId)?.let { expiries[userId] = it } }
 
 		try {
-			repository.recordActivities(snapshot, activityTimeout)
+			repository.saveExpiries(expiries, activityTimeout)
 		} catch (e: Exception) {
-			logger().warn("Failed to flush {} activity records", snapshot.size, e)
+			logger().warn("Failed to flush {} activity records", expiries.size, e)
+		}
+	}
+
+	// rows of expired users are only needed until they expired in memory, so the database can be swept leisurely
+	@Scheduled(fixedDelay = 1, timeUnit = MINUTES, initialDelay = 1)
+	internal fun sweepDatabase() {
+		val now = clock.millis()
+		try {
+			databaseSweepTime.record(Runnable {
+				do {
+					val deleted = repository.deleteExpired(now, sweepBatchSize)
+					if (deleted > 0) {
+						databaseSweepBatch.record(deleted.toDouble())
+					}
+				} while (deleted == sweepBatchSize)
+			})
+		} catch (e: Exception) {
+			logger().warn("Failed to delete expired activity records", e)
 		}
 	}
 
@@ -67,9 +152,14 @@ class ActivityService(
 	}
 
 	fun wasActiveRecently(userId: Long): Boolean {
-		if (buffer.contains(userId)) {
-			return true
-		}
-		return repository.wasActiveRecently(userId)
+		return store.isActive(userId, clock.millis())
+	}
+
+	/**
+	 * @return those of the passed in users that have not been active recently
+	 */
+	fun inactiveOf(userIds: Collection<Long>): Set<Long> {
+		val now = clock.millis()
+		return userIds.filterTo(HashSet()) { !store.isActive(it, now) }
 	}
 }
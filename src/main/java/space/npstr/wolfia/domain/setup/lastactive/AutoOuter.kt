@@ -31,11 +31,7 @@ class AutoOuter(
 ) {
 
 	@EventListener
-	fun onUserBecameInactive(event: LastActiveRepository.UserBecameInactive) {
-		outUser(event.userId)
-	}
-
-	private fun outUser(userId: Long) {
-		gameSetupService.outUserDueToInactivity(userId, this.shardManager)
+	fun onUsersBecameInactive(event: ActivityService.UsersBecameInactive) {
+		gameSetupService.outUsersDueToInactivity(event.userIds, this.shardManager)
 	}
 }
@@ -16,71 +16,66 @@
  */
 package space.npstr.wolfia.domain.setup.lastactive
 
-import java.time.Clock
 import java.time.Duration
-import java.util.concurrent.TimeUnit.SECONDS
 import org.jooq.DSLContext
 import org.jooq.impl.DSL
-import org.jooq.impl.DSL.count
-import org.springframework.context.ApplicationEventPublisher
-import org.springframework.scheduling.annotation.Scheduled
 import org.springframework.stereotype.Repository
 import space.npstr.wolfia.db.gen.Tables
 
+/**
+ * Persists the activity of [ActivityService], so that it survives restarts.
+ */
 @Repository
 class LastActiveRepository(
-	private val clock: Clock,
 	private val jooq: DSLContext,
-	private val eventPublisher: ApplicationEventPublisher,
 ) {
 
-	data class UserBecameInactive(
-		val userId: Long,
-	)
-
-	@Scheduled(fixedDelay = 1, timeUnit = SECONDS, initialDelay = 1)
-	internal fun expire() {
-		val now = clock.millis()
-		jooq.transactionResult { config ->
-			DSL.using(config)
-				.deleteFrom(Tables.LAST_ACTIVE)
-				.where(Tables.LAST_ACTIVE.EXPIRES.lessThan(now))
-				.returning()
-				.fetch(Tables.LAST_ACTIVE.USER_ID)
-		}.forEach { eventPublisher.publishEvent(UserBecameInactive(it)) }
-	}
-
-	fun recordActivity(userId: Long, timeout: Duration) {
-		recordActivities(setOf(userId), timeout)
+	/**
+	 * @return expiry timestamps of all recorded activity, keyed by user id
+	 */
+	fun findAllExpiries(): Map<Long, Long> {
+		return jooq.select(Tables.LAST_ACTIVE.USER_ID, Tables.LAST_ACTIVE.EXPIRES)
+			.from(Tables.LAST_ACTIVE)
+			.fetchMap(Tables.LAST_ACTIVE.USER_ID, Tables.LAST_ACTIVE.EXPIRES)
 	}
 
-	fun recordActivities(userIds: Set<Long>, timeout: Duration) {
-		if (userIds.isEmpty()) return
-		val now = clock.instant()
-		val expires = now.plus(timeout)
+	/**
+	 * @param expiries expiry timestamps keyed by user id, the activity happened [timeout] before them
+	 */
+	fun saveExpiries(expiries: Map<Long, Long>, timeout: Duration) {
+		if (expiries.isEmpty()) return
 
 		jooq.transaction { config ->
 			val context = DSL.using(config)
-			val queries = userIds.map { userId ->
+			val queries = expiries.map { (userId, expires) ->
+				val timestamp = expires - timeout.toMillis()
 				context
 					.insertInto(Tables.LAST_ACTIVE)
 					.columns(Tables.LAST_ACTIVE.USER_ID, Tables.LAST_ACTIVE.TIMESTAMP, Tables.LAST_ACTIVE.EXPIRES)
-					.values(userId, now.toEpochMilli(), expires.toEpochMilli())
+					.values(userId, timestamp, expires)
 					.onDuplicateKeyUpdate()
-					.set(Tables.LAST_ACTIVE.TIMESTAMP, now.toEpochMilli())
-					.set(Tables.LAST_ACTIVE.EXPIRES, expires.toEpochMilli())
+					.set(Tables.LAST_ACTIVE.TIMESTAMP, timestamp)
+					.set(Tables.LAST_ACTIVE.EXPIRES, expires)
 			}
 			context.batch(queries).execute()
 		}
 	}
 
-	fun wasActiveRecently(userId: Long): Boolean {
-		val now = clock.millis()
-		return jooq.select(count())
-			.from(Tables.LAST_ACTIVE)
-			.where(Tables.LAST_ACTIVE.USER_ID.eq(userId))
-			.and(Tables.LAST_ACTIVE.EXPIRES.greaterThan(now))
-			.fetchSingle()
-			.get(count()) > 0
+	/**
+	 * Delete up to [limit] rows of activity that expired before [now], earliest expiry first.
+	 *
+	 * @return amount of deleted rows
+	 */
+	fun deleteExpired(now: Long, limit: Int): Int {
+		return jooq.deleteFrom(Tables.LAST_ACTIVE)
+			.where(Tables.LAST_ACTIVE.USER_ID.`in`(
+				DSL.select(Tables.LAST_ACTIVE.USER_ID)
+					.from(Tables.LAST_ACTIVE)
+					.where(Tables.LAST_ACTIVE.EXPIRES.lessThan(now))
+					.orderBy(Tables.LAST_ACTIVE.EXPIRES)
+					.limit(limit)
+			))
+			.and(Tables.LAST_ACTIVE.EXPIRES.lessThan(now)) // rechecked in case the activity was renewed meanwhile
+			.execute()
 	}
 }
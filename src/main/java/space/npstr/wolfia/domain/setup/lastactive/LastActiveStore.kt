@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.domain.setup.lastactive
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentSkipListSet
+
+/**
+ * Expiry timestamps of user activity, keyed by user id, plus the same entries ordered by expiry, so that expired
+ * users can be taken from the head without scanning everyone.
+ */
+internal class LastActiveStore {
+
+	private data class Expiry(val expires: Long, val userId: Long) : Comparable<Expiry> {
+		override fun compareTo(other: Expiry): Int {
+			val byExpiry = expires.compareTo(other.expires)
+			return if (byExpiry != 0) byExpiry else userId.compareTo(other.userId)
+		}
+	}
+
+	private val expiries = ConcurrentHashMap<Long, Long>()
+	private val queue = ConcurrentSkipListSet<Expiry>()
+
+	val size: Int
+		get() = expiries.size
+
+	fun record(userId: Long, expires: Long) {
+		// compute keeps the map and the queue consistent for concurrent recordings of the same user
+		expiries.compute(userId) { _, previous ->
+			if (previous != null) {
+				queue.remove(Expiry(previous, userId))
+			}
+			queue.add(Expiry(expires, userId))
+			expires
+		}
+	}
+
+	fun expiresOf(userId: Long): Long? {
+		return expiries[userId]
+	}
+
+	fun isActive(userId: Long, now: Long): Boolean {
+		val expires = expiries[userId] ?: return false
+		return expires > now
+	}
+
+	/**
+	 * Remove up to [limit] users whose activity expired before [now], earliest expiry first.
+	 */
+	fun expire(now: Long, limit: Int = Int.MAX_VALUE): List<Long> {
+		val due = queue.headSet(Expiry(now, Long.MIN_VALUE), false)
+		val expired = ArrayList<Long>()
+		while (expired.size < limit) {
+			val head = due.pollFirst() ?: break
+			// a concurrent recording may have replaced the entry we polled, then the user is active again
+			if (expiries.remove(head.userId, head.expires)) {
+				expired.add(head.userId)
+			}
+		}
+		return expired
+	}
+}
@@ -17,22 +17,21 @@
 
 package space.npstr.wolfia.events;
 
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.events.message.react.GenericMessageReactionEvent;
-import net.dv8tion.jda.api.hooks.ListenerAdapter;
-import net.dv8tion.jda.api.sharding.ShardManager;
+import space.npstr.wolfia.game.tools.HashedWheelTimer;
 
 /**
- * A self destructing listener for reactions to a single message
+ * A self destructing listener for reactions to a single message. Needs to be registered with the {@link ReactionRouter}
+ * after being created, and unregisters itself on self destruct.
  */
-public class ReactionListener extends ListenerAdapter {
+public class ReactionListener {
 
-    private final ShardManager shardManager;
+    private final ReactionRouter reactionRouter;
     private final long messageId;
     private final Predicate<Member> filter;
     private final Consumer<GenericMessageReactionEvent> callback;
@@ -45,30 +44,29 @@ public class ReactionListener extends ListenerAdapter {
      * @param selfDestructMillis   milliseconds after which this listener is removed and the message deleted
      * @param selfDestructCallback called on self destruct
      */
-    public ReactionListener(ShardManager shardManager, ScheduledExecutorService executor, Message message, Predicate<Member> filter, Consumer<GenericMessageReactionEvent> callback,
+    public ReactionListener(ReactionRouter reactionRouter, HashedWheelTimer timer, Message message, Predicate<Member> filter, Consumer<GenericMessageReactionEvent> callback,
                             long selfDestructMillis, Consumer<Void> selfDestructCallback) {
 
-        this.shardManager = shardManager;
+        this.reactionRouter = reactionRouter;
         this.messageId = message.getIdLong();
         this.filter = filter;
         this.callback = callback;
         this.selfDestructCallback = selfDestructCallback;
 
-        executor.schedule(this::destruct, selfDestructMillis, TimeUnit.MILLISECONDS);
+        timer.schedule(this::destruct, Duration.ofMillis(selfDestructMillis));
+    }
+
+    long getMessageId() {
+        return this.messageId;
     }
 
     protected void destruct() {
         //remove the listener
-        this.shardManager.removeEventListener(this);
+        this.reactionRouter.unregister(this.messageId, this);
         this.selfDestructCallback.accept(null);
     }
 
-    @Override
-    public void onGenericMessageReaction(GenericMessageReactionEvent event) {
-        if (this.messageId != event.getMessageIdLong()) {
-            return;
-        }
-
+    void onReaction(GenericMessageReactionEvent event) {
         if (!this.filter.test(event.getMember())) {
             return;
         }
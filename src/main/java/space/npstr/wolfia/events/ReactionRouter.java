@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.events;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.dv8tion.jda.api.events.message.react.GenericMessageReactionEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes reactions to the {@link ReactionListener} of the message they were added to or removed from. This is the
+ * only listener for reactions, so their dispatch costs one map lookup no matter how many games are running.
+ */
+@Component
+public class ReactionRouter {
+
+    private final Map<Long, ReactionListener> listeners = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onGenericMessageReaction(GenericMessageReactionEvent event) {
+        ReactionListener listener = this.listeners.get(event.getMessageIdLong());
+        if (listener != null) {
+            listener.onReaction(event);
+        }
+    }
+
+    public void register(ReactionListener listener) {
+        this.listeners.put(listener.getMessageId(), listener);
+    }
+
+    void unregister(long messageId, ReactionListener listener) {
+        this.listeners.remove(messageId, listener);
+    }
+}
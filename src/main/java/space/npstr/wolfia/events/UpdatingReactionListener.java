@@ -17,15 +17,13 @@
 
 package space.npstr.wolfia.events;
 
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.events.message.react.GenericMessageReactionEvent;
-import net.dv8tion.jda.api.sharding.ShardManager;
+import space.npstr.wolfia.game.tools.HashedWheelTimer;
 
 /**
  * This reaction listener will call for updates
@@ -33,7 +31,7 @@
 public class UpdatingReactionListener extends ReactionListener {
 
     private final Consumer<Void> updateCallback;
-    private final ScheduledFuture<?> updates;
+    private final HashedWheelTimer.Timeout updates;
 
     /**
      * @param message              The message on which to listen for reactions
@@ -44,14 +42,14 @@ public class UpdatingReactionListener extends ReactionListener {
      * @param updateMillis         interval for updates happening
      * @param updateCallback       called on update
      */
-    public UpdatingReactionListener(ShardManager shardManager, ScheduledExecutorService executor, Message message,
+    public UpdatingReactionListener(ReactionRouter reactionRouter, HashedWheelTimer timer, Message message,
                                     Predicate<Member> filter, Consumer<GenericMessageReactionEvent> reactionCallback,
                                     long selfDestructMillis, Consumer<Void> selfDestructCallback,
                                     long updateMillis, Consumer<Void> updateCallback) {
-        super(shardManager, executor, message, filter, reactionCallback, selfDestructMillis, selfDestructCallback);
+        super(reactionRouter, timer, message, filter, reactionCallback, selfDestructMillis, selfDestructCallback);
 
         this.updateCallback = updateCallback;
-        this.updates = executor.scheduleAtFixedRate(this::update, updateMillis - 1000, updateMillis, TimeUnit.MILLISECONDS);
+        this.updates = timer.scheduleAtFixedRate(this::update, Duration.ofMillis(updateMillis - 1000), Duration.ofMillis(updateMillis));
     }
 
     private void update() {
@@ -60,7 +58,7 @@ private void update() {
 
     @Override
     protected void destruct() {
-        this.updates.cancel(true);
+        this.updates.cancel();
         super.destruct();
     }
 }
@@ -28,7 +28,7 @@
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import net.dv8tion.jda.api.EmbedBuilder;
@@ -63,6 +63,7 @@
 import space.npstr.wolfia.game.definitions.Scope;
 import space.npstr.wolfia.game.exceptions.IllegalGameStateException;
 import space.npstr.wolfia.game.tools.ExceptionLoggingExecutor;
+import space.npstr.wolfia.game.tools.HashedWheelTimer;
 import space.npstr.wolfia.game.tools.NiceEmbedBuilder;
 import space.npstr.wolfia.utils.UserFriendlyException;
 import space.npstr.wolfia.utils.discord.RestActions;
@@ -89,18 +90,17 @@ public abstract class Game {
 
     protected final GameResources resources;
 
-    //to be used to execute tasks for each game
+    //to be used to execute tasks for each game, delayed tasks go through scheduleIfGameStillRuns
     //each task scheduled on it needs to check of the game is still running once it continues execution to avoid race
     //conditions in games ending outside of main loop (shots, bombs, forced destroy by bot admin, etc)
-    protected final ExceptionLoggingExecutor executor = new ExceptionLoggingExecutor(10,
-            r -> new Thread(r, "game-in-channel-" + Game.this.getChannelId() + "-executor-thread"));
+    protected final ExceptionLoggingExecutor executor;
 
     //commonly used fields
     protected long channelId = -1;
     protected long guildId = -1;
     protected final long selfUserId;
     protected GameInfo.GameMode mode;
-    protected final List<Player> players = new ArrayList<>();
+    protected volatile Roster roster = Roster.empty();
     protected volatile boolean running = false;
     protected long accessRoleId;
     protected ManagedPrivateRoom wolfChat = null;
@@ -114,6 +114,8 @@ public abstract class Game {
 
     protected Game(GameResources gameResources) {
         this.resources = gameResources;
+        this.executor = gameResources.newGameExecutor(
+                r -> new Thread(r, "game-in-channel-" + Game.this.getChannelId() + "-executor-thread"));
         this.selfUserId = resources.getShardManager().getShards().stream().findAny()
                 .map(shard -> shard.getSelfUser().getIdLong())
                 .orElseThrow();
@@ -150,8 +152,7 @@ public String getRolePm(Member member) throws IllegalGameStateException {
      * @return true if the user is playing in this game (dead or alive), false if not
      */
     public boolean isUserPlaying(User user) {
-        long userId = user.getIdLong();
-        return this.players.stream().anyMatch(p -> p.userId == userId);
+        return this.roster.contains(user.getIdLong());
     }
 
     public boolean isUserPlaying(Member member) {
@@ -207,21 +208,15 @@ public boolean isLiving(User user) {
     }
 
     public boolean isLiving(long userId) {
-        for (Player p : this.players) {
-            if (p.userId == userId && p.isAlive()) {
-                return true;
-            }
-        }
-        return false;
+        return this.roster.isLiving(userId);
     }
 
     protected Player getPlayer(long userId) throws IllegalGameStateException {
-        for (Player p : this.players) {
-            if (p.userId == userId) {
-                return p;
-            }
+        Player player = this.roster.get(userId);
+        if (player == null) {
+            throw new IllegalGameStateException("Requested player " + userId + " is not in the player list");
         }
-        throw new IllegalGameStateException("Requested player " + userId + " is not in the player list");
+        return player;
     }
 
     public Player getPlayer(User user) throws IllegalGameStateException {
@@ -229,76 +224,65 @@ public Player getPlayer(User user) throws IllegalGameStateException {
     }
 
     protected Set<Player> getVillagers() {
-        return this.players.stream()
-                .filter(Player::isGoodie)
-                .collect(Collectors.toSet());
+        return new HashSet<>(this.roster.village());
     }
 
     protected List<Player> getLivingVillage() {
-        return this.players.stream()
-                .filter(Player::isAlive)
-                .filter(Player::isGoodie)
-                .collect(Collectors.toList());
+        return this.roster.livingVillage();
     }
 
     protected Set<Long> getLivingVillageIds() {
-        return this.players.stream()
-                .filter(Player::isAlive)
-                .filter(Player::isGoodie)
-                .map(Player::getUserId)
-                .collect(Collectors.toSet());
+        return userIds(this.roster.livingVillage());
     }
 
     protected Set<Player> getWolves() {
-        return this.players.stream()
-                .filter(Player::isBaddie)
-                .collect(Collectors.toSet());
+        return new HashSet<>(this.roster.wolves());
     }
 
     protected Set<Long> getWolvesIds() {
-        return this.players.stream()
-                .filter(Player::isBaddie)
-                .map(Player::getUserId)
-                .collect(Collectors.toSet());
+        return userIds(this.roster.wolves());
     }
 
     protected List<Player> getLivingWolves() {
-        return this.players.stream()
-                .filter(Player::isAlive)
-                .filter(Player::isBaddie)
-                .collect(Collectors.toList());
+        return this.roster.livingWolves();
     }
 
     protected Set<String> getLivingWolvesMentions() {
-        return this.players.stream()
-                .filter(Player::isAlive)
-                .filter(Player::isBaddie)
-                .map(p -> TextchatUtils.userAsMention(p.userId))
-                .collect(Collectors.toSet());
+        Set<String> mentions = new HashSet<>();
+        for (Player p : this.roster.livingWolves()) {
+            mentions.add(TextchatUtils.userAsMention(p.userId));
+        }
+        return mentions;
     }
 
     protected List<Player> getLivingPlayers() {
-        return this.players.stream()
-                .filter(Player::isAlive)
-                .collect(Collectors.toList());
+        return this.roster.living();
     }
 
     protected Set<Long> getLivingPlayerIds() {
-        return this.players.stream()
-                .filter(Player::isAlive)
-                .map(Player::getUserId)
-                .collect(Collectors.toSet());
+        return userIds(this.roster.living());
     }
 
     protected List<String> getLivingPlayerMentions() {
-        return this.players.stream()
-                .filter(Player::isAlive)
-                .map(p -> TextchatUtils.userAsMention(p.userId))
-                .collect(Collectors.toList());
+        List<Player> living = this.roster.living();
+        List<String> mentions = new ArrayList<>(living.size());
+        for (Player p : living) {
+            mentions.add(TextchatUtils.userAsMention(p.userId));
+        }
+        return mentions;
     }
 
     public boolean isLivingWolf(Member m) {
-        return getLivingWolves().stream().anyMatch(player -> player.userId == m.getUser().getIdLong());
+        Player player = this.roster.get(m.getUser().getIdLong());
+        return player != null && player.isAlive() && player.isBaddie();
+    }
+
+    private static Set<Long> userIds(List<Player> players) {
+        Set<Long> userIds = new HashSet<>();
+        for (Player p : players) {
+            userIds.add(p.userId);
+        }
+        return userIds;
     }
 
     //do not post this before the game is over
@@ -472,13 +456,14 @@ protected void randCharacters(Set<Long> innedPlayers) {
             );
         }
 
-        this.players.clear();
+        List<Player> players = new ArrayList<>(rand.size());
         int i = 0;
         for (Charakter c : charakterSetup.getRandedCharakters()) {
             long randedUserId = rand.get(i);
-            this.players.add(new Player(resources, randedUserId, this.channelId, this.guildId, c.alignment, c.role, i + 1));
+            players.add(new Player(resources, randedUserId, this.channelId, this.guildId, c.alignment, c.role, i + 1));
             i++;
         }
+        this.roster = new Roster(players);
     }
 
     protected ManagedPrivateRoom allocatePrivateRoom() {
@@ -540,7 +525,7 @@ public void resetRolesAndPermissions(boolean... complete) {
 
         //reset permission override for the players
         try {
-            for (Player player : this.players) {
+            for (Player player : this.roster.all()) {
                 toComplete.add(RoleAndPermissionUtils.clear(channel, g.getMemberById(player.userId),
                         Permission.MESSAGE_SEND, Permission.MESSAGE_ADD_REACTION).submit());
             }
@@ -594,6 +579,7 @@ public void cleanUp() {
             }
         }
         resetRolesAndPermissions(true);
+        this.resources.getTimerWheel().cancelAll(this);
         this.executor.shutdown(); //dont use shutdownNow() as that might kill the thread executing this line of code
     }
 
@@ -622,12 +608,12 @@ public void destroy(Throwable reason) {
     }
 
     protected boolean isOnlyVillageLeft() {
-        return getLivingPlayers().stream().allMatch(Player::isGoodie);
+        return this.roster.livingWolvesCount() == 0;
     }
 
     //this check will probably get much more sophisticated with more complicated roles
     protected boolean isParityReached() {
-        return getLivingWolves().size() >= getLivingVillage().size();
+        return this.roster.livingWolvesCount() >= this.roster.livingVillageCount();
     }
 
 
@@ -695,7 +681,7 @@ protected boolean isGameOver(boolean... wwFlair) {
             long gameId = this.gameStats.getGameId();
             log.info("Game #{} ended in guild {} {}, channel #{} {}, {} {} {} players",
                     gameId, gameChannel.getGuild().getName(), gameChannel.getGuild().getIdLong(),
-                    gameChannel.getName(), gameChannel.getIdLong(), info, this.mode.textRep, this.players.size());
+                    gameChannel.getName(), gameChannel.getIdLong(), info, this.mode.textRep, this.roster.size());
             // removing the game from the registry has to be the very last statement, since if a restart is queued, it
             // waits for an empty games registry
             RestActions.sendMessage(fetchGameChannel(), out,
@@ -738,12 +724,22 @@ protected void addToBaddieGuild(Player player) {
         // TODO tell player if they have no valid token
     }
 
-    protected Future<?> scheduleIfGameStillRuns(Runnable runnable, Duration delay) {
-        return this.executor.schedule(() -> {
-            if (running) {
-                runnable.run();
+    /**
+     * The task is timed by the timer wheel and run on the executor of this game. It is cancelled together with all
+     * other tasks of this game when the game is cleaned up.
+     */
+    protected HashedWheelTimer.Timeout scheduleIfGameStillRuns(Runnable runnable, Duration delay) {
+        return this.resources.getTimerWheel().schedule(this, () -> {
+            try {
+                this.executor.execute(() -> {
+                    if (running) {
+                        runnable.run();
+                    }
+                });
+            } catch (RejectedExecutionException ignored) {
+                // the game has been cleaned up in the meantime
             }
-        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }, delay);
     }
 
     //an way to create ActionStats object with a bunch of default/automatically generated values, like time stamps
@@ -17,6 +17,10 @@
 
 package space.npstr.wolfia.game;
 
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import net.dv8tion.jda.api.sharding.ShardManager;
 import org.springframework.stereotype.Component;
 import space.npstr.wolfia.config.properties.WolfiaConfig;
@@ -26,7 +30,10 @@
 import space.npstr.wolfia.domain.room.PrivateRoomQueue;
 import space.npstr.wolfia.domain.settings.ChannelSettingsService;
 import space.npstr.wolfia.domain.stats.StatsService;
+import space.npstr.wolfia.events.ReactionRouter;
 import space.npstr.wolfia.game.tools.ExceptionLoggingExecutor;
+import space.npstr.wolfia.game.tools.HashedWheelTimer;
+import space.npstr.wolfia.system.Exceptions;
 import space.npstr.wolfia.system.metrics.MetricsService;
 
 /**
@@ -35,6 +42,8 @@
 @Component
 public class GameResources {
 
+    private static final int GAME_THREADS = 10;
+
     private final WolfiaConfig wolfiaConfig;
     private final PrivateRoomQueue privateRoomQueue;
     private final ExceptionLoggingExecutor executor;
@@ -45,11 +54,13 @@ public class GameResources {
     private final GameRegistry gameRegistry;
     private final OAuth2Service oAuth2Service;
     private final MetricsService metricsService;
+    private final HashedWheelTimer timerWheel;
+    private final ReactionRouter reactionRouter;
 
     public GameResources(WolfiaConfig wolfiaConfig, PrivateRoomQueue privateRoomQueue, ExceptionLoggingExecutor executor,
                          ShardManager shardManager, ChannelSettingsService channelSettingsService, UserCache userCache,
                          StatsService statsService, GameRegistry gameRegistry, OAuth2Service oAuth2Service,
-                         MetricsService metricsService) {
+                         MetricsService metricsService, HashedWheelTimer timerWheel, ReactionRouter reactionRouter) {
 
         this.wolfiaConfig = wolfiaConfig;
         this.privateRoomQueue = privateRoomQueue;
@@ -61,6 +72,8 @@ public GameResources(WolfiaConfig wolfiaConfig, PrivateRoomQueue privateRoomQueu
         this.gameRegistry = gameRegistry;
         this.oAuth2Service = oAuth2Service;
         this.metricsService = metricsService;
+        this.timerWheel = timerWheel;
+        this.reactionRouter = reactionRouter;
     }
 
     public WolfiaConfig getWolfiaConfig() {
@@ -75,6 +88,32 @@ public ExceptionLoggingExecutor getExecutor() {
         return this.executor;
     }
 
+    /**
+     * @return a new executor for the tasks of a single game, so that a slow game task can not hold up anything else.
+     * Its worker threads are bounded. The caller is responsible for shutting it down.
+     */
+    public ExceptionLoggingExecutor newGameExecutor(ThreadFactory threadFactory) {
+        if (this.wolfiaConfig.isVirtualThreads()) {
+            var virtualThreadFactory = Thread.ofVirtual()
+                    .name("game-executor-v", 0)
+                    .uncaughtExceptionHandler(Exceptions.UNCAUGHT_EXCEPTION_HANDLER)
+                    .factory();
+            var worker = new ThreadPoolExecutor(GAME_THREADS, GAME_THREADS, 1, TimeUnit.MINUTES,
+                    new LinkedBlockingQueue<>(), virtualThreadFactory);
+            worker.allowCoreThreadTimeOut(true);
+            return new ExceptionLoggingExecutor(1, threadFactory, worker);
+        }
+        return new ExceptionLoggingExecutor(GAME_THREADS, threadFactory);
+    }
+
+    public HashedWheelTimer getTimerWheel() {
+        return this.timerWheel;
+    }
+
+    public ReactionRouter getReactionRouter() {
+        return this.reactionRouter;
+    }
+
     public ShardManager getShardManager() {
         return this.shardManager;
     }
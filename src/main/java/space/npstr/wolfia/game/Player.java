@@ -54,6 +54,7 @@ public class Player {
 
     private String rolePm = "This player has no role pm.";
     private boolean isAlive = true;
+    private @Nullable Roster roster;
 
     public Player(GameResources resources, long userId, long channelId, long guildId, Alignments alignment,
                   Roles role, int number) {
@@ -185,6 +186,13 @@ public void kill() throws IllegalGameStateException {
             throw new IllegalGameStateException("Can't kill a dead player");
         }
         this.isAlive = false;
+        if (this.roster != null) {
+            this.roster.died(this);
+        }
+    }
+
+    void joined(Roster roster) {
+        this.roster = roster;
     }
 
     @Override
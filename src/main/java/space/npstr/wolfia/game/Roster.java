@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package space.npstr.wolfia.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The players of a game, indexed by their number, with lookups by user id that neither stream nor box. Who is alive,
+ * and how many of each alignment, is kept up to date by {@link Player#kill()}, so that counting living players or
+ * checking for parity does not need to look at the players at all.
+ */
+public final class Roster {
+
+    private static final Roster EMPTY = new Roster(List.of());
+
+    // index is the number of the player minus one
+    private final Player[] byNumber;
+    private final List<Player> all;
+    // sorted user ids, and the index of their player at the same position
+    private final long[] userIds;
+    private final int[] indexOfUserId;
+    private final BitSet wolves;
+    // guarded by this
+    private final BitSet living;
+    private volatile int livingCount;
+    private volatile int livingWolvesCount;
+
+    /**
+     * @param players numbered from 1 onwards, in the order of their numbers
+     */
+    public Roster(List<Player> players) {
+        int size = players.size();
+        this.byNumber = players.toArray(new Player[0]);
+        this.all = List.of(this.byNumber);
+        this.userIds = new long[size];
+        this.indexOfUserId = new int[size];
+        this.wolves = new BitSet(size);
+        this.living = new BitSet(size);
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            Player player = this.byNumber[i];
+            if (player.number != i + 1) {
+                throw new IllegalArgumentException("Player " + player.userId + " has number " + player.number
+                        + " but is at position " + (i + 1));
+            }
+            order[i] = i;
+            if (player.isBaddie()) {
+                this.wolves.set(i);
+            }
+            if (player.isAlive()) {
+                this.living.set(i);
+            }
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(this.byNumber[a].userId, this.byNumber[b].userId));
+        for (int i = 0; i < size; i++) {
+            this.userIds[i] = this.byNumber[order[i]].userId;
+            this.indexOfUserId[i] = order[i];
+        }
+        this.livingCount = this.living.cardinality();
+        this.livingWolvesCount = countLivingWolves();
+
+        for (Player player : this.byNumber) {
+            player.joined(this);
+        }
+    }
+
+    public static Roster empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return this.byNumber.length;
+    }
+
+    /**
+     * @return all players, dead or alive, ordered by their number
+     */
+    public List<Player> all() {
+        return this.all;
+    }
+
+    public @Nullable Player get(long userId) {
+        int position = Arrays.binarySearch(this.userIds, userId);
+        return position < 0 ? null : this.byNumber[this.indexOfUserId[position]];
+    }
+
+    public @Nullable Player getByNumber(int number) {
+        return number < 1 || number > this.byNumber.length ? null : this.byNumber[number - 1];
+    }
+
+    public boolean contains(long userId) {
+        return Arrays.binarySearch(this.userIds, userId) >= 0;
+    }
+
+    public boolean isLiving(long userId) {
+        Player player = get(userId);
+        return player != null && player.isAlive();
+    }
+
+    public int livingCount() {
+        return this.livingCount;
+    }
+
+    public int livingWolvesCount() {
+        return this.livingWolvesCount;
+    }
+
+    public int livingVillageCount() {
+        return this.livingCount - this.livingWolvesCount;
+    }
+
+    /**
+     * @return the living players, ordered by their number
+     */
+    public synchronized List<Player> living() {
+        List<Player> result = new ArrayList<>(this.livingCount);
+        for (int i = this.living.nextSetBit(0); i >= 0; i = this.living.nextSetBit(i + 1)) {
+            result.add(this.byNumber[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the living players of the wolf alignment, ordered by their number
+     */
+    public synchronized List<Player> livingWolves() {
+        return living(true, this.livingWolvesCount);
+    }
+
+    /**
+     * @return the living players of the village alignment, ordered by their number
+     */
+    public synchronized List<Player> livingVillage() {
+        return living(false, livingVillageCount());
+    }
+
+    /**
+     * @return all players of the wolf alignment, dead or alive, ordered by their number
+     */
+    public List<Player> wolves() {
+        return byAlignment(true);
+    }
+
+    /**
+     * @return all players of the village alignment, dead or alive, ordered by their number
+     */
+    public List<Player> village() {
+        return byAlignment(false);
+    }
+
+    /**
+     * Called by {@link Player#kill()}.
+     */
+    synchronized void died(Player player) {
+        int index = player.number - 1;
+        if (this.byNumber[index] != player || !this.living.get(index)) {
+            return;
+        }
+        this.living.clear(index);
+        this.livingCount--;
+        if (this.wolves.get(index)) {
+            this.livingWolvesCount--;
+        }
+    }
+
+    // guarded by this
+    private List<Player> living(boolean wolves, int expectedSize) {
+        List<Player> result = new ArrayList<>(expectedSize);
+        for (int i = this.living.nextSetBit(0); i >= 0; i = this.living.nextSetBit(i + 1)) {
+            if (this.wolves.get(i) == wolves) {
+                result.add(this.byNumber[i]);
+            }
+        }
+        return result;
+    }
+
+    private List<Player> byAlignment(boolean wolves) {
+        List<Player> result = new ArrayList<>();
+        for (int i = 0; i < this.byNumber.length; i++) {
+            if (this.wolves.get(i) == wolves) {
+                result.add(this.byNumber[i]);
+            }
+        }
+        return result;
+    }
+
+    private int countLivingWolves() {
+        BitSet livingWolves = (BitSet) this.living.clone();
+        livingWolves.and(this.wolves);
+        return livingWolves.cardinality();
+    }
+}
@@ -28,7 +28,6 @@
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import net.dv8tion.jda.api.EmbedBuilder;
@@ -36,7 +35,6 @@
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
-import net.dv8tion.jda.api.sharding.ShardManager;
 import space.npstr.wolfia.commands.CommandContext;
 import space.npstr.wolfia.commands.MessageContext;
 import space.npstr.wolfia.commands.game.RolePmCommand;
@@ -68,6 +66,7 @@
 import space.npstr.wolfia.game.definitions.Roles;
 import space.npstr.wolfia.game.exceptions.DayEndedAlreadyException;
 import space.npstr.wolfia.game.exceptions.IllegalGameStateException;
+import space.npstr.wolfia.game.tools.HashedWheelTimer;
 import space.npstr.wolfia.game.tools.NiceEmbedBuilder;
 import space.npstr.wolfia.game.tools.VotingBuilder;
 import space.npstr.wolfia.utils.PeriodicTimer;
@@ -77,8 +76,6 @@
 import space.npstr.wolfia.utils.discord.RoleAndPermissionUtils;
 import space.npstr.wolfia.utils.discord.TextchatUtils;
 
-import static java.util.Objects.requireNonNull;
-
 /**
  * This is it, the actual werewolf/mafia game!
  */
@@ -100,8 +97,8 @@ public class Mafia extends Game {
     private final Map<Player, InsertActionStats> nightKillVoteActions = new HashMap<>();
     private final Map<Player, InsertActionStats> nightActions = new HashMap<>();
 
-    private Future<?> phaseEndTimer;
-    private Future<?> phaseEndReminder;
+    private HashedWheelTimer.Timeout phaseEndTimer;
+    private HashedWheelTimer.Timeout phaseEndReminder;
     private final VotingBuilder votingBuilder = new VotingBuilder()
             .unvoteEmoji(Emojis.X)
             .header("Day ends in **%timeleft** with a lynch.")
@@ -184,7 +181,7 @@ public synchronized void start(long channelId, GameInfo.GameMode mode, Set<Long>
             mafiaTeamNames.append(player.bothNamesFormatted()).append("\n");
         }
 
-        for (Player player : this.players) {
+        for (Player player : this.roster.all()) {
             StringBuilder rolePm = new StringBuilder()
                     .append("Hi ").append(player.getName()).append("!\n")
                     .append(player.alignment.rolePmBlockMaf).append("\n")
@@ -210,9 +207,9 @@ public synchronized void start(long channelId, GameInfo.GameMode mode, Set<Long>
         Guild g = gameChannel.getGuild();
         //set up stats objects
         this.insertGameStats = new InsertGameStats(g.getIdLong(), g.getName(), this.channelId, gameChannel.getName(),
-                Games.MAFIA, this.mode, this.players.size());
+                Games.MAFIA, this.mode, this.roster.size());
         Map<Alignments, InsertTeamStats> teams = new EnumMap<>(Alignments.class);
-        for (Player player : this.players) {
+        for (Player player : this.roster.all()) {
             Alignments alignment = player.alignment;
             InsertTeamStats team = teams.getOrDefault(alignment, new InsertTeamStats(alignment, alignment.textRepMaf, -1));
             InsertPlayerStats ps = new InsertPlayerStats(player.userId, player.getNick(), alignment, player.role);
@@ -229,7 +226,7 @@ public synchronized void start(long channelId, GameInfo.GameMode mode, Set<Long>
         String info = Games.getInfo(this).textRep();
         log.info("Game started in guild {} {}, channel #{} {}, {} {} {} players",
                 g.getName(), g.getIdLong(), gameChannel.getName(), gameChannel.getIdLong(),
-                info, mode.textRep, this.players.size());
+                info, mode.textRep, this.roster.size());
         this.running = true;
         this.insertGameStats.addAction(simpleAction(this.selfUserId, Actions.GAMESTART, -1));
         //mention the players in the thread
@@ -261,7 +258,7 @@ public boolean issueCommand(CommandContext context) {
                 context.replyWithMention("you can issue that command only in the main game channel.");
                 return false; //ignore vote commands not in game chat
             }
-            Player candidate = GameUtils.identifyPlayer(this.players, context);
+            Player candidate = GameUtils.identifyPlayer(this.roster.all(), context);
             if (candidate == null) return false;
 
             return vote(invoker, candidate, context);
@@ -293,7 +290,7 @@ public boolean issueCommand(CommandContext context) {
                 return false;
             }
 
-            Player target = GameUtils.identifyPlayer(this.players, context);
+            Player target = GameUtils.identifyPlayer(this.roster.all(), context);
             if (target == null) return false;
 
             return check(invoker, target, context);
@@ -313,7 +310,7 @@ public boolean issueCommand(CommandContext context) {
                 return false;
             }
 
-            Player target = GameUtils.identifyPlayer(this.players, context);
+            Player target = GameUtils.identifyPlayer(this.roster.all(), context);
             if (target == null) return false;
 
             return givePresent(invoker, target, context);
@@ -340,7 +337,7 @@ public boolean issueCommand(CommandContext context) {
                 return false;
             }
 
-            Player target = GameUtils.identifyPlayer(this.players, context);
+            Player target = GameUtils.identifyPlayer(this.roster.all(), context);
             if (target == null) return false;
 
             return shoot(invoker, target, context);
@@ -362,7 +359,7 @@ public boolean issueCommand(CommandContext context) {
         } else if (context.command instanceof NightkillCommand) {
             //equivalent to the vote command m just for baddies in the night
 
-            Player candidate = GameUtils.identifyPlayer(this.players, context);
+            Player candidate = GameUtils.identifyPlayer(this.roster.all(), context);
             if (candidate == null) return false;
 
             return nkVote(invoker, candidate, context);
@@ -393,7 +390,7 @@ private boolean vote(Player voter, Player candidate, MessageContext context) {
             this.voteActions.put(voter, simpleAction(voter.userId, Actions.VOTELYNCH, candidate.userId));
 
             //check for majj
-            int livingPlayersCount = getLivingPlayers().size();
+            int livingPlayersCount = this.roster.livingCount();
             int majThreshold = (livingPlayersCount / 2);
             long mostVotes = GameUtils.mostVotes(this.votes);
             if (mostVotes > majThreshold) {
@@ -680,8 +677,8 @@ private void endDay() throws DayEndedAlreadyException {
             }
             this.hasDayEnded.add(this.cycle);
         }
-        if (this.phaseEndTimer != null) this.phaseEndTimer.cancel(false);
-        if (this.phaseEndReminder != null) this.phaseEndReminder.cancel(false);
+        if (this.phaseEndTimer != null) this.phaseEndTimer.cancel();
+        if (this.phaseEndReminder != null) this.phaseEndReminder.cancel();
 
         TextChannel gameChannel = fetchGameChannel();
 
@@ -730,7 +727,7 @@ private void postUpdatingNightMessage() {
         String basic = "Night falls...\n";
         RestActions.sendMessage(fetchGameChannel(), basic + nightTimeLeft(),
                 m -> new PeriodicTimer(
-                        resources.getExecutor(),
+                        resources.getTimerWheel(),
                         TimeUnit.SECONDS.toMillis(5),
                         onUpdate -> RestActions.editMessage(m, basic + nightTimeLeft()),
                         this.phaseStarted + this.nightLengthMillis - System.currentTimeMillis(),
@@ -764,10 +761,9 @@ private void startNight() {
 
         RestActions.sendMessage(wolfchatChannel, "Nightkill voting!\n" + String.join(", ", getLivingWolvesMentions()),
                 m -> RestActions.sendMessage(wolfchatChannel, this.nightKillVotingBuilder.getEmbed(this.nightkillVotes).build(), message -> {
-                    ShardManager shardManager = requireNonNull(message.getJDA().getShardManager());
-                    shardManager.addEventListener(new UpdatingReactionListener(
-                            shardManager,
-                            resources.getExecutor(),
+                    resources.getReactionRouter().register(new UpdatingReactionListener(
+                            resources.getReactionRouter(),
+                            resources.getTimerWheel(),
                             message,
                             this::isLivingWolf,
                             __ -> {
@@ -783,7 +779,7 @@ private void startNight() {
                                     RestActions.editMessage(message, this.nightKillVotingBuilder.getFinalEmbed(this.nightkillVotes, this.phase, this.cycle).build());
                                     Player nightKillCandidate = GameUtils.rand(GameUtils.mostVoted(this.nightkillVotes, getLivingVillage()));
 
-                                    TextChannel textChannel = shardManager.getTextChannelById(this.channelId);
+                                    TextChannel textChannel = resources.getShardManager().getTextChannelById(this.channelId);
                                     String invite = textChannel == null ? ""
                                             : TextchatUtils.getOrCreateInviteLinkForChannel(textChannel);
                                     RestActions.sendMessage(wolfchatChannel, String.format(
@@ -32,7 +32,6 @@
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
-import net.dv8tion.jda.api.sharding.ShardManager;
 import space.npstr.wolfia.commands.CommandContext;
 import space.npstr.wolfia.commands.game.RolePmCommand;
 import space.npstr.wolfia.commands.ingame.ShootCommand;
@@ -60,7 +59,6 @@
 import space.npstr.wolfia.utils.discord.RoleAndPermissionUtils;
 import space.npstr.wolfia.utils.discord.TextchatUtils;
 
-import static java.util.Objects.requireNonNull;
 import static space.npstr.wolfia.game.GameInfo.GameMode;
 
 /**
@@ -131,6 +129,7 @@ public void cleanUp() {
             this.wolfChat.endUsage();
         }
 
+        this.resources.getTimerWheel().cancelAll(this);
         this.executor.shutdown();
         if (this.mode != GameMode.WILD) { //nothing to do for the wild mode
             resetRolesAndPermissions(true);
@@ -172,7 +171,7 @@ public synchronized void start(long channelId, GameMode mode, Set<Long> innedPla
             wolfteamNames.append(player.bothNamesFormatted()).append("\n");
         }
 
-        for (Player player : this.players) {
+        for (Player player : this.roster.all()) {
             StringBuilder rolePm = new StringBuilder()
                     .append("Hi ").append(player.getName()).append("!\n")
                     .append(player.alignment.rolePmBlockWW).append("\n");
@@ -202,9 +201,9 @@ public synchronized void start(long channelId, GameMode mode, Set<Long> innedPla
         Guild g = gameChannel.getGuild();
         //set up stats objects
         this.insertGameStats = new InsertGameStats(g.getIdLong(), g.getName(), this.channelId, gameChannel.getName(),
-                Games.POPCORN, this.mode, this.players.size());
+                Games.POPCORN, this.mode, this.roster.size());
         Map<Alignments, InsertTeamStats> teams = new EnumMap<>(Alignments.class);
-        for (Player player : this.players) {
+        for (Player player : this.roster.all()) {
             Alignments alignment = player.alignment;
             InsertTeamStats team = teams.getOrDefault(alignment,
                     new InsertTeamStats(alignment, alignment.textRepWW, -1));
@@ -222,12 +221,12 @@ public synchronized void start(long channelId, GameMode mode, Set<Long> innedPla
         String info = Games.getInfo(this).textRep();
         log.info("Game started in guild {} {}, channel #{} {}, {} {} {} players",
                 g.getName(), g.getIdLong(), gameChannel.getName(), gameChannel.getIdLong(),
-                info, mode.textRep, this.players.size());
+                info, mode.textRep, this.roster.size());
         this.running = true;
         this.insertGameStats.addAction(simpleAction(this.selfUserId, Actions.GAMESTART, -1));
         //mention the players in the thread
         RestActions.sendMessage(gameChannel, String.format("Game has started!%n%s%n**%s** wolves are alive!",
-                listLivingPlayers(), getLivingWolves().size()));
+                listLivingPlayers(), this.roster.livingWolvesCount()));
         distributeGun();
     }
 
@@ -236,7 +235,7 @@ public boolean issueCommand(CommandContext context)
             throws IllegalGameStateException {
         if (context.command instanceof ShootCommand) {
             long shooter = context.invoker.getIdLong();
-            Player target = GameUtils.identifyPlayer(this.players, context);
+            Player target = GameUtils.identifyPlayer(this.roster.all(), context);
             if (target == null) return false;
             return shoot(shooter, target.userId);
         } else {
@@ -373,7 +372,7 @@ private boolean shoot(long shooterId, long targetId) throws IllegalGameStateExce
             RestActions.sendMessage(gameChannel, String.format("%s please don't %s yourself, that would make a big mess.",
                     TextchatUtils.userAsMention(shooterId), Emojis.GUN));
             return false;
-        } else if (this.players.stream().noneMatch(p -> p.userId == shooterId)) {
+        } else if (!this.roster.contains(shooterId)) {
             RestActions.sendMessage(gameChannel, String.format("%s shush, you're not playing in this game!",
                     TextchatUtils.userAsMention(shooterId)));
             return false;
@@ -489,10 +488,9 @@ public GunDistribution() {
                             prepareGunDistributionEmbed(options, new HashMap<>(this.votes)).build(),
                             m -> {
                                 options.keySet().forEach(emoji -> m.addReaction(Emoji.fromUnicode(emoji)).queue(null, RestActions.defaultOnFail()));
-                                ShardManager shardManager = requireNonNull(m.getJDA().getShardManager());
-                                shardManager.addEventListener(new ReactionListener(
-                                        shardManager,
-                                        resources.getExecutor(),
+                                resources.getReactionRouter().register(new ReactionListener(
+                                        resources.getReactionRouter(),
+                                        resources.getTimerWheel(),
                                         m,
                                         //filter: only living wolves may vote
                                         Popcorn.this::isLivingWolf,
@@ -519,7 +517,7 @@ private synchronized void voted(long voter, long candidate) {
             this.votes.remove(voter);//remove first so there is an order by earliest vote (reinserting would not put the new vote to the end)
             this.votes.put(voter, candidate);
             //has everyone voted?
-            if (this.votes.size() == getLivingWolves().size()) {
+            if (this.votes.size() == Popcorn.this.roster.livingWolvesCount()) {
                 endDistribution(new HashMap<>(this.votes), GunDistributionEndReason.EVERYONE_VOTED);
             }
         }
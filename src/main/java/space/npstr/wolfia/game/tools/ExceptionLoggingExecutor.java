@@ -17,41 +17,79 @@
 
 package space.npstr.wolfia.game.tools;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.jspecify.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * This executor logs exceptions of its tasks.
+ * <p>
+ * When created with a worker, the threads of this executor only act as timers: one-shot tasks are handed off to the
+ * worker once they are due, and immediately submitted tasks go straight to the worker. This allows running the actual
+ * (often blocking) work on virtual threads while keeping the scheduling on a few platform threads. Periodic tasks stay
+ * on the threads of this executor, so that runs of the same task never overlap and fixed delays keep their meaning.
+ * The worker belongs to this executor and is shut down together with it.
  */
 public class ExceptionLoggingExecutor extends ScheduledThreadPoolExecutor {
 
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ExceptionLoggingExecutor.class);
 
+    private final @Nullable ExecutorService worker;
+
     public ExceptionLoggingExecutor(int threads, String threadName) {
         this(threads, r -> new Thread(r, threadName));
     }
 
     public ExceptionLoggingExecutor(int threads, ThreadFactory threadFactory) {
+        this(threads, threadFactory, null);
+    }
+
+    /**
+     * @param worker if not null, runs the one-shot tasks of this executor. It is shut down together with this executor.
+     */
+    public ExceptionLoggingExecutor(int threads, ThreadFactory threadFactory, @Nullable ExecutorService worker) {
         super(threads, threadFactory);
+        this.worker = worker;
     }
 
     @Override
     public void execute(Runnable command) {
+        if (this.worker != null) {
+            rejectIfShutdown();
+            this.worker.execute(wrapRunnableExceptionSafe(command));
+            return;
+        }
         super.execute(wrapRunnableExceptionSafe(command));
     }
 
     @Override
     public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit timeUnit) {
-        return super.schedule(wrapRunnableExceptionSafe(command), delay, timeUnit);
+        if (this.worker == null) {
+            return super.schedule(wrapRunnableExceptionSafe(command), delay, timeUnit);
+        }
+        return handOff(new HandOffTask<>(wrapRunnableExceptionSafe(command), null), delay, timeUnit);
     }
 
     @Override
     public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
-        return super.schedule(wrapExceptionSafe(callable), delay, unit);
+        if (this.worker == null) {
+            return super.schedule(wrapExceptionSafe(callable), delay, unit);
+        }
+        return handOff(new HandOffTask<>(wrapExceptionSafe(callable)), delay, unit);
     }
 
     @Override
@@ -64,21 +102,138 @@ public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialD
         return super.scheduleWithFixedDelay(wrapRunnableExceptionSafe(command), initialDelay, delay, unit);
     }
 
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> notRun = new ArrayList<>(super.shutdownNow());
+        if (this.worker != null) {
+            notRun.addAll(this.worker.shutdownNow());
+        }
+        return notRun;
+    }
+
+    // after a regular shutdown, delayed tasks may still be handed off until this executor terminates
+    @Override
+    protected void terminated() {
+        super.terminated();
+        if (this.worker != null) {
+            this.worker.shutdown();
+        }
+    }
+
     @Override
     public Future<?> submit(Runnable task) {
+        if (this.worker != null) {
+            rejectIfShutdown();
+            return this.worker.submit(wrapRunnableExceptionSafe(task));
+        }
         return super.submit(wrapRunnableExceptionSafe(task));
     }
 
     @Override
     public <T> Future<T> submit(Runnable task, T result) {
+        if (this.worker != null) {
+            rejectIfShutdown();
+            return this.worker.submit(wrapRunnableExceptionSafe(task), result);
+        }
         return super.submit(wrapRunnableExceptionSafe(task), result);
     }
 
     @Override
     public <T> Future<T> submit(Callable<T> task) {
+        if (this.worker != null) {
+            rejectIfShutdown();
+            return this.worker.submit(wrapExceptionSafe(task));
+        }
         return super.submit(wrapExceptionSafe(task));
     }
 
+    // immediate tasks go straight to the worker and skip the checks of this executor, so they are rejected here
+    private void rejectIfShutdown() {
+        if (isShutdown()) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+    }
+
+    // the threads of this executor only time the task, and hand it off to the worker once it is due
+    private <V> ScheduledFuture<V> handOff(HandOffTask<V> task, long delay, TimeUnit unit) {
+        ExecutorService w = requireNonNull(this.worker);
+        ScheduledFuture<?> timer = super.schedule(() -> {
+            try {
+                w.execute(task);
+            } catch (RejectedExecutionException e) {
+                log.warn("Worker rejected a scheduled task", e);
+                task.reject(e);
+            }
+        }, delay, unit);
+        return new HandedOffFuture<>(timer, task);
+    }
+
+    private static class HandOffTask<V> extends FutureTask<V> {
+
+        private HandOffTask(Callable<V> callable) {
+            super(callable);
+        }
+
+        private HandOffTask(Runnable runnable, @Nullable V result) {
+            super(runnable, result);
+        }
+
+        private void reject(RejectedExecutionException e) {
+            setException(e);
+        }
+    }
+
+    /**
+     * Times like the future of the scheduled hand off, and completes once the worker ran the task. Cancelling it
+     * interrupts the task if it is already running on the worker.
+     */
+    private static class HandedOffFuture<V> implements ScheduledFuture<V> {
+
+        private final ScheduledFuture<?> timer;
+        private final HandOffTask<V> result;
+
+        private HandedOffFuture(ScheduledFuture<?> timer, HandOffTask<V> result) {
+            this.timer = timer;
+            this.result = result;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return this.timer.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return this.timer.compareTo(other);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = this.timer.cancel(false);
+            return this.result.cancel(mayInterruptIfRunning) || cancelled;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return this.result.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return this.result.isDone();
+        }
+
+        @Override
+        public V get() throws InterruptedException, ExecutionException {
+            return this.result.get();
+        }
+
+        @Override
+        public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return this.result.get(timeout, unit);
+        }
+    }
+
     public static Runnable wrapRunnableExceptionSafe(Runnable runnable) {
         return wrapExceptionSafe(new ExceptionalTask(runnable));
     }
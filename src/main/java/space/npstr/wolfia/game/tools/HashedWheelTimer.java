@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.game.tools;
+
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jspecify.annotations.Nullable;
+import space.npstr.wolfia.system.Exceptions;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+/**
+ * A timer for coarse timeouts, like game phases, reaction listeners and event waiters.
+ * <p>
+ * Timeouts are sorted into the buckets of a wheel that a single thread advances by one bucket per tick, so scheduling
+ * and cancelling are O(1) no matter how many timeouts are pending. The price is precision: timeouts expire up to one
+ * tick late. Expired timeouts are run on the worker, never on the thread of the wheel.
+ * <p>
+ * Timeouts can be scheduled for an owner, for example a game, so that all of them can be cancelled at once with
+ * {@link #cancelAll(Object)}.
+ */
+public class HashedWheelTimer {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Timeout>[] wheel;
+    private final Executor worker;
+    private final AtomicInteger pending;
+    private final Timer tickLag;
+    private final Thread ticker;
+    private final long startTime;
+
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final Map<Object, Set<Timeout>> byOwner = new ConcurrentHashMap<>();
+    private volatile boolean stopped = false;
+    private long tick = 0; // only touched by the ticker thread
+
+    /**
+     * @param name      identifies this timer in thread names and metrics
+     * @param tick      resolution of this timer
+     * @param wheelSize amount of buckets, rounded up to a power of two. Timeouts further away than one rotation of the
+     *                  wheel are skipped over until their round comes up.
+     * @param worker    runs the expired timeouts
+     */
+    @SuppressWarnings("unchecked")
+    public HashedWheelTimer(String name, Duration tick, int wheelSize, Executor worker, MetricsService metricsService) {
+        if (tick.toNanos() <= 0) {
+            throw new IllegalArgumentException("Tick must be positive, got " + tick);
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("Wheel size must be in (0, 2^30], got " + wheelSize);
+        }
+        int buckets = 1;
+        while (buckets < wheelSize) {
+            buckets <<= 1;
+        }
+        this.tickNanos = tick.toNanos();
+        this.mask = buckets - 1;
+        this.wheel = new List[buckets];
+        for (int i = 0; i < buckets; i++) {
+            this.wheel[i] = new ArrayList<>();
+        }
+        this.worker = worker;
+        this.pending = metricsService.pendingTimers(name);
+        this.tickLag = metricsService.timerTickLag(name);
+
+        this.startTime = System.nanoTime();
+        this.ticker = new Thread(this::run, name + "-timer-wheel");
+        this.ticker.setDaemon(true);
+        this.ticker.setUncaughtExceptionHandler(Exceptions.UNCAUGHT_EXCEPTION_HANDLER);
+        this.ticker.start();
+    }
+
+    public Timeout schedule(Runnable task, Duration delay) {
+        return schedule(null, task, delay);
+    }
+
+    public Timeout schedule(@Nullable Object owner, Runnable task, Duration delay) {
+        return add(new Timeout(owner, task, deadline(delay), 0));
+    }
+
+    public Timeout scheduleAtFixedRate(Runnable task, Duration initialDelay, Duration period) {
+        return scheduleAtFixedRate(null, task, initialDelay, period);
+    }
+
+    /**
+     * Runs the task every period after the initial delay, until the returned timeout is cancelled.
+     */
+    public Timeout scheduleAtFixedRate(@Nullable Object owner, Runnable task, Duration initialDelay, Duration period) {
+        if (period.toNanos() <= 0) {
+            throw new IllegalArgumentException("Period must be positive, got " + period);
+        }
+        return add(new Timeout(owner, task, deadline(initialDelay), period.toNanos()));
+    }
+
+    /**
+     * Cancel all pending timeouts of the owner.
+     *
+     * @return amount of timeouts cancelled by this call
+     */
+    public int cancelAll(Object owner) {
+        Set<Timeout> timeouts = this.byOwner.remove(owner);
+        if (timeouts == null) {
+            return 0;
+        }
+        int cancelled = 0;
+        for (Timeout timeout : timeouts) {
+            if (timeout.cancel()) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * @return amount of timeouts that have neither expired nor been cancelled yet
+     */
+    public int pending() {
+        return this.pending.get();
+    }
+
+    /**
+     * Stops the wheel. Pending timeouts will not expire anymore.
+     */
+    public void stop() {
+        this.stopped = true;
+        this.ticker.interrupt();
+    }
+
+    private long deadline(Duration delay) {
+        return System.nanoTime() + Math.max(0, delay.toNanos()) - this.startTime;
+    }
+
+    private Timeout add(Timeout timeout) {
+        if (this.stopped) {
+            throw new RejectedExecutionException("Timer has been stopped");
+        }
+        this.pending.incrementAndGet();
+        if (timeout.owner != null) {
+            this.byOwner.compute(timeout.owner, (__, timeouts) -> {
+                Set<Timeout> result = timeouts != null ? timeouts : ConcurrentHashMap.newKeySet();
+                result.add(timeout);
+                return result;
+            });
+        }
+        this.newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private void run() {
+        while (!this.stopped) {
+            long deadline = this.tickNanos * (this.tick + 1);
+            long now = System.nanoTime() - this.startTime;
+            while (now < deadline) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(deadline - now);
+                } catch (InterruptedException e) {
+                    if (this.stopped) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                now = System.nanoTime() - this.startTime;
+            }
+            this.tickLag.record(now - deadline, TimeUnit.NANOSECONDS);
+
+            transferNewTimeouts();
+            expire(this.wheel[(int) (this.tick & this.mask)]);
+            this.tick++;
+        }
+    }
+
+    private void transferNewTimeouts() {
+        Timeout timeout;
+        while ((timeout = this.newTimeouts.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculated = timeout.deadline / this.tickNanos;
+            timeout.remainingRounds = (calculated - this.tick) / this.wheel.length;
+            long ticks = Math.max(calculated, this.tick); // don't schedule into the past
+            this.wheel[(int) (ticks & this.mask)].add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.isCancelled()) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                timeout.expire();
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    public final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final @Nullable Object owner;
+        private final Runnable task;
+        private final long period;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long deadline; // only touched by the ticker thread after creation
+        private long remainingRounds;
+
+        private Timeout(@Nullable Object owner, Runnable task, long deadline, long period) {
+            this.owner = owner;
+            this.task = ExceptionLoggingExecutor.wrapRunnableExceptionSafe(task);
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        /**
+         * @return true if this call cancelled the timeout, false if it had expired or been cancelled already
+         */
+        public boolean cancel() {
+            if (!this.state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            release();
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return this.state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return this.state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (this.period > 0) {
+                if (this.state.get() != PENDING) {
+                    return;
+                }
+                this.deadline += this.period;
+                HashedWheelTimer.this.newTimeouts.add(this);
+            } else if (this.state.compareAndSet(PENDING, EXPIRED)) {
+                release();
+            } else {
+                return;
+            }
+
+            try {
+                HashedWheelTimer.this.worker.execute(this.task);
+            } catch (RejectedExecutionException e) {
+                log.warn("Worker rejected an expired timeout", e);
+            }
+        }
+
+        private void release() {
+            HashedWheelTimer.this.pending.decrementAndGet();
+            if (this.owner != null) {
+                HashedWheelTimer.this.byOwner.computeIfPresent(this.owner, (__, timeouts) -> {
+                    timeouts.remove(this);
+                    return timeouts.isEmpty() ? null : timeouts;
+                });
+            }
+        }
+    }
+}
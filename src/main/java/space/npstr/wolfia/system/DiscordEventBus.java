@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.system;
+
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import org.jspecify.annotations.Nullable;
+import org.springframework.aop.framework.autoproxy.AutoProxyUtils;
+import org.springframework.aop.scope.ScopedProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+/**
+ * Delivers the events of all shards to the Spring {@link org.springframework.context.event.EventListener} methods that
+ * take a Discord event as their parameter, without going through Spring's application event multicaster.
+ * <p>
+ * The listener methods are collected once all singletons have been instantiated, which is when Spring registers its
+ * own event listeners, and for each concrete event class the matching listeners, sorted by their {@link Order}, are
+ * resolved the first time such an event arrives. After that delivering an event is a lookup and a loop, and event types
+ * without any listener are dropped right away. The listener beans themselves are only created when they receive their
+ * first event, which keeps lazy initialization intact.
+ * <p>
+ * The shards are started while the singletons are created, so events arriving before the listener methods have been
+ * collected, like the first ready events, are buffered and replayed in order afterwards. Should the bus only be created
+ * after the singletons, the listener methods are collected when the context has been refreshed instead.
+ * <p>
+ * Conditional listeners are not supported, their condition would be ignored, so startup fails when one is found.
+ */
+@Component
+public class DiscordEventBus implements EventListener, SmartInitializingSingleton,
+        ApplicationListener<ContextRefreshedEvent> {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DiscordEventBus.class);
+
+    private final ConfigurableListableBeanFactory beanFactory;
+    private final MetricsService metricsService;
+    private volatile @Nullable Listeners listeners;
+    // events received before the listener methods were collected, guarded by itself
+    private final List<GenericEvent> buffered = new ArrayList<>();
+
+    public DiscordEventBus(ConfigurableListableBeanFactory beanFactory, MetricsService metricsService) {
+        this.beanFactory = beanFactory;
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        collectListeners();
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (event.getApplicationContext().getAutowireCapableBeanFactory() != this.beanFactory) {
+            return; // a child context, like the one of the management server
+        }
+        collectListeners();
+    }
+
+    @Override
+    public void onEvent(GenericEvent event) {
+        Listeners current = this.listeners;
+        if (current == null) {
+            synchronized (this.buffered) {
+                current = this.listeners;
+                if (current == null) {
+                    this.buffered.add(event);
+                    return;
+                }
+            }
+        }
+        dispatch(current, event);
+    }
+
+    private void collectListeners() {
+        synchronized (this.buffered) {
+            if (this.listeners != null) {
+                return;
+            }
+            List<ListenerMethod> listenerMethods = findListenerMethods(this.beanFactory);
+            log.info("Found {} Discord event listeners, replaying {} buffered events",
+                    listenerMethods.size(), this.buffered.size());
+            // published only after the replay, so events arriving meanwhile wait and keep their order
+            Listeners collected = new Listeners(listenerMethods);
+            for (GenericEvent event : this.buffered) {
+                dispatch(collected, event);
+            }
+            this.buffered.clear();
+            this.listeners = collected;
+        }
+    }
+
+    private void dispatch(Listeners current, GenericEvent event) {
+        Dispatch dispatch = current.dispatches.get(event.getClass());
+        if (dispatch.listeners.length == 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        for (ListenerMethod listener : dispatch.listeners) {
+            listener.invoke(event);
+        }
+        if (dispatch.timer != null) {
+            dispatch.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Dispatch dispatchFor(List<ListenerMethod> listenerMethods, Class<?> eventType) {
+        ListenerMethod[] listeners = listenerMethods.stream()
+                .filter(listener -> listener.eventType.isAssignableFrom(eventType))
+                .toArray(ListenerMethod[]::new);
+        if (listeners.length == 0) {
+            return new Dispatch(listeners, null);
+        }
+        return new Dispatch(listeners, this.metricsService.discordEventDispatchTime(eventType.getSimpleName()));
+    }
+
+    private static List<ListenerMethod> findListenerMethods(ConfigurableListableBeanFactory beanFactory) {
+        List<ListenerMethod> result = new ArrayList<>();
+        for (String beanName : beanFactory.getBeanNamesForType(Object.class)) {
+            if (ScopedProxyUtils.isScopedTarget(beanName)) {
+                continue;
+            }
+            Class<?> beanType;
+            try {
+                beanType = AutoProxyUtils.determineTargetClass(beanFactory, beanName);
+            } catch (Exception e) {
+                log.debug("Could not resolve target class for bean {}", beanName, e);
+                continue;
+            }
+            if (beanType == null) {
+                continue;
+            }
+
+            Map<Method, org.springframework.context.event.EventListener> annotatedMethods = MethodIntrospector.selectMethods(
+                    beanType,
+                    (MethodIntrospector.MetadataLookup<org.springframework.context.event.EventListener>) method ->
+                            AnnotatedElementUtils.findMergedAnnotation(method, org.springframework.context.event.EventListener.class)
+            );
+            for (Map.Entry<Method, org.springframework.context.event.EventListener> entry : annotatedMethods.entrySet()) {
+                Method method = entry.getKey();
+                Class<?>[] parameterTypes = method.getParameterTypes();
+                if (parameterTypes.length != 1 || !GenericEvent.class.isAssignableFrom(parameterTypes[0])) {
+                    continue; // not a Discord event listener
+                }
+                if (StringUtils.hasText(entry.getValue().condition())) {
+                    throw new IllegalStateException("Discord event listener " + beanName + "#" + method.getName()
+                            + " has a condition, which is not supported");
+                }
+                int order = orderOf(method, beanType);
+                result.add(new ListenerMethod(beanFactory, beanName, method, parameterTypes[0], order));
+            }
+        }
+        // stable, so listeners with the same order keep their discovery order
+        result.sort(Comparator.comparingInt(listener -> listener.order));
+        return List.copyOf(result);
+    }
+
+    private static int orderOf(Method method, Class<?> beanType) {
+        Order order = AnnotatedElementUtils.findMergedAnnotation(method, Order.class);
+        if (order != null) {
+            return order.value();
+        }
+        return OrderUtils.getOrder(beanType, Ordered.LOWEST_PRECEDENCE);
+    }
+
+    private record Dispatch(ListenerMethod[] listeners, @Nullable Timer timer) {}
+
+    // replaced as a whole on refresh, so the dispatches always match the listener methods they were resolved from
+    private class Listeners {
+        private final ClassValue<Dispatch> dispatches;
+
+        private Listeners(List<ListenerMethod> listenerMethods) {
+            this.dispatches = new ClassValue<>() {
+                @Override
+                protected Dispatch computeValue(Class<?> eventType) {
+                    return dispatchFor(listenerMethods, eventType);
+                }
+            };
+        }
+    }
+
+    private static class ListenerMethod {
+        private final ConfigurableListableBeanFactory beanFactory;
+        private final String beanName;
+        private final Method method;
+        private final Class<?> eventType;
+        private final int order;
+
+        private volatile @Nullable Object bean;
+        private volatile @Nullable Method invocable;
+
+        private ListenerMethod(ConfigurableListableBeanFactory beanFactory, String beanName, Method method,
+                               Class<?> eventType, int order) {
+            this.beanFactory = beanFactory;
+            this.beanName = beanName;
+            this.method = method;
+            this.eventType = eventType;
+            this.order = order;
+        }
+
+        private void invoke(GenericEvent event) {
+            try {
+                Object target = this.bean;
+                Method toInvoke = this.invocable;
+                if (target == null || toInvoke == null) {
+                    target = this.beanFactory.getBean(this.beanName);
+                    toInvoke = AopUtils.selectInvocableMethod(this.method, target.getClass());
+                    ReflectionUtils.makeAccessible(toInvoke);
+                    this.invocable = toInvoke;
+                    this.bean = target;
+                }
+                toInvoke.invoke(target, event);
+            } catch (InvocationTargetException e) {
+                log.error("Listener {}#{} failed to handle {}", this.beanName, this.method.getName(),
+                        event.getClass().getSimpleName(), e.getCause());
+            } catch (Exception e) {
+                log.error("Failed to invoke listener {}#{} for {}", this.beanName, this.method.getName(),
+                        event.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -19,20 +19,30 @@
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.react.GenericMessageReactionEvent;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import space.npstr.wolfia.system.metrics.ExecutorTelemetry;
 
 /**
  * Just like the JDA-Utils EventWaiter (Apache v2) but a bunch of improvements
@@ -41,103 +51,242 @@
  * - efficient
  * - stricter types
  * - doesn't have to wait 2 years (and counting) for fixes
+ * <p>
+ * Waiters are kept in concurrent collections, so registering, matching and timing out do not have to go through a
+ * single thread. Waiters that are registered with a {@link Key} are indexed by it, and an event is only tested against
+ * the waiters registered under its own channel, user or message id, plus any waiters without a key.
+ * <p>
+ * Only message received and message reaction events are listened to, so the {@link DiscordEventBus} can skip all
+ * other event types. Waiting for any other event is rejected.
  */
 @Component
 public class EventWaiter {
 
-    //this thread pool runs the actions as well as the timeout actions
+    /**
+     * What waiters can be indexed by. Events that don't carry the key will never match waiters registered with it.
+     */
+    public enum Key {
+        CHANNEL(event -> event instanceof GenericMessageEvent messageEvent
+                ? messageEvent.getChannel().getIdLong() : NO_KEY),
+        USER(event -> {
+            if (event instanceof MessageReceivedEvent messageReceived) {
+                return messageReceived.getAuthor().getIdLong();
+            }
+            if (event instanceof GenericMessageReactionEvent reactionEvent) {
+                return reactionEvent.getUserIdLong();
+            }
+            return NO_KEY;
+        }),
+        MESSAGE(event -> event instanceof GenericMessageEvent messageEvent
+                ? messageEvent.getMessageIdLong() : NO_KEY),
+        ;
+
+        private final ToLongFunction<GenericEvent> extractor;
+
+        Key(ToLongFunction<GenericEvent> extractor) {
+            this.extractor = extractor;
+        }
+    }
+
+    private static final long NO_KEY = -1;
+
+    // superclasses of event classes, excluding Object, starting with the class itself
+    private static final ClassValue<Class<?>[]> HIERARCHY = new ClassValue<>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                hierarchy.add(clazz);
+            }
+            return hierarchy.toArray(new Class<?>[0]);
+        }
+    };
+
+    //this thread pool runs the actions as well as the timeout actions, measured like the other tasks of the jda pool
     private final ScheduledExecutorService pool;
-    //modifications to the hash map and sets have to go through this single threaded pool
-    private final ScheduledExecutorService single;
 
-    //These stateful collections are only threadsafe when modified though the single executor
-    private final List<WaitingEvent<? extends GenericEvent>> toRemove = new ArrayList<>(); //reused object
-    private final HashMap<Class<? extends GenericEvent>, Set<WaitingEvent<? extends GenericEvent>>> waitingEvents;
+    private final Map<Class<?>, Waiters> waitingEvents = new ConcurrentHashMap<>();
 
-    public EventWaiter(ScheduledThreadPoolExecutor jdaThreadPool) {
-        this.waitingEvents = new HashMap<>();
-        this.pool = jdaThreadPool;
-        this.single = new ScheduledThreadPoolExecutor(1);
+    public EventWaiter(@Qualifier("jdaThreadPoolTelemetry") ExecutorTelemetry jdaThreadPool) {
+        this.pool = jdaThreadPool.forRole("event-waiter");
     }
 
     public <T extends GenericEvent> EventWaiter.WaitingEvent<T> waitForEvent(
             Class<T> classType, Predicate<T> condition, Consumer<T> action, Duration timeout,
             Runnable timeoutAction
     ) {
+        return register(classType, null, NO_KEY, condition, action, timeout, timeoutAction);
+    }
 
-        EventWaiter.WaitingEvent<T> we = new EventWaiter.WaitingEvent<>(condition, action);
-
-        this.single.execute(() -> {
-            this.waitingEvents.computeIfAbsent(classType, c -> new HashSet<>())
-                    .add(we);
-            this.single.schedule(() -> {
-                var set = this.waitingEvents.get(classType);
-                if (set == null) {
-                    return;
-                }
-                if (set.remove(we)) {
-                    this.pool.execute(timeoutAction);
-                }
+    /**
+     * Like {@link #waitForEvent(Class, Predicate, Consumer, Duration, Runnable)}, but only events with the given key are
+     * tested against the condition.
+     */
+    public <T extends GenericEvent> EventWaiter.WaitingEvent<T> waitForEvent(
+            Class<T> classType, Key key, long keyValue, Predicate<T> condition, Consumer<T> action, Duration timeout,
+            Runnable timeoutAction
+    ) {
+        return register(classType, key, keyValue, condition, action, timeout, timeoutAction);
+    }
 
-                if (set.isEmpty()) {
-                    this.waitingEvents.remove(classType);
-                }
-            }, timeout.toMillis(), TimeUnit.MILLISECONDS);
-        });
+    private <T extends GenericEvent> EventWaiter.WaitingEvent<T> register(
+            Class<T> classType, @Nullable Key key, long keyValue, Predicate<T> condition, Consumer<T> action,
+            Duration timeout, Runnable timeoutAction
+    ) {
+        if (!MessageReceivedEvent.class.isAssignableFrom(classType)
+                && !GenericMessageReactionEvent.class.isAssignableFrom(classType)) {
+            throw new IllegalArgumentException("Can't wait for " + classType.getSimpleName()
+                    + ", only message received and message reaction events are listened to");
+        }
+        Waiters waiters = this.waitingEvents.computeIfAbsent(classType, __ -> new Waiters());
+        EventWaiter.WaitingEvent<T> we = new EventWaiter.WaitingEvent<>(waiters, key, keyValue, condition, action);
+        waiters.add(we);
+        we.timeout = this.pool.schedule(() -> {
+            if (we.finish()) {
+                timeoutAction.run();
+            }
+        }, timeout.toMillis(), TimeUnit.MILLISECONDS);
         return we;
     }
 
     @EventListener
     //avoids the same message that registers an event to be waited on also triggering the event waiter
     @Order(Ordered.HIGHEST_PRECEDENCE)
-    public void onEvent(GenericEvent event) {
-        Class<?> cc = event.getClass();
-
-        // Runs at least once for the fired Event, at most
-        // once for each superclass (excluding Object) because
-        // Class#getSuperclass() returns null when the superclass
-        // is primitive, void, or (in this case) Object.
-        while (cc != null && cc != Object.class) {
-            Class<?> clazz = cc;
-            if (this.waitingEvents.get(clazz) != null) {
-                this.single.execute(() -> {
-                    Set<WaitingEvent<? extends GenericEvent>> set = this.waitingEvents.get(clazz);
-                    @SuppressWarnings({"unchecked", "rawtypes"}) Predicate<WaitingEvent> filter = we -> we.attempt(event);
-                    set.stream().filter(filter).forEach(this.toRemove::add);
-                    set.removeAll(this.toRemove);
-                    this.toRemove.clear();
-
-                    if (set.isEmpty()) {
-                        this.waitingEvents.remove(clazz);
-                    }
-                });
+    public void onMessageReceived(MessageReceivedEvent event) {
+        onEvent(event);
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onMessageReaction(GenericMessageReactionEvent event) {
+        onEvent(event);
+    }
+
+    private void onEvent(GenericEvent event) {
+        for (Class<?> clazz : HIERARCHY.get(event.getClass())) {
+            Waiters waiters = this.waitingEvents.get(clazz);
+            if (waiters != null && waiters.size.get() > 0) {
+                waiters.attempt(event);
+            }
+        }
+    }
+
+    /**
+     * The waiters of a single event class.
+     */
+    private static class Waiters {
+        private final AtomicInteger size = new AtomicInteger();
+        private final Set<WaitingEvent<?>> unkeyed = ConcurrentHashMap.newKeySet();
+        private final Map<Key, Map<Long, Set<WaitingEvent<?>>>> keyed = new EnumMap<>(Key.class);
+
+        private Waiters() {
+            for (Key key : Key.values()) {
+                this.keyed.put(key, new ConcurrentHashMap<>());
             }
+        }
 
-            cc = cc.getSuperclass();
+        private void add(WaitingEvent<?> we) {
+            this.size.incrementAndGet();
+            if (we.key == null) {
+                this.unkeyed.add(we);
+                return;
+            }
+            this.keyed.get(we.key).compute(we.keyValue, (__, set) -> {
+                Set<WaitingEvent<?>> result = set != null ? set : ConcurrentHashMap.newKeySet();
+                result.add(we);
+                return result;
+            });
+        }
+
+        private void remove(WaitingEvent<?> we) {
+            if (we.key == null) {
+                if (this.unkeyed.remove(we)) {
+                    this.size.decrementAndGet();
+                }
+                return;
+            }
+            this.keyed.get(we.key).computeIfPresent(we.keyValue, (__, set) -> {
+                if (set.remove(we)) {
+                    this.size.decrementAndGet();
+                }
+                return set.isEmpty() ? null : set;
+            });
+        }
+
+        private void attempt(GenericEvent event) {
+            for (WaitingEvent<?> we : this.unkeyed) {
+                we.attempt(event);
+            }
+            for (Map.Entry<Key, Map<Long, Set<WaitingEvent<?>>>> entry : this.keyed.entrySet()) {
+                Map<Long, Set<WaitingEvent<?>>> index = entry.getValue();
+                if (index.isEmpty()) {
+                    continue;
+                }
+                long keyValue = entry.getKey().extractor.applyAsLong(event);
+                if (keyValue == NO_KEY) {
+                    continue;
+                }
+                Set<WaitingEvent<?>> set = index.get(keyValue);
+                if (set != null) {
+                    for (WaitingEvent<?> we : set) {
+                        we.attempt(event);
+                    }
+                }
+            }
         }
     }
 
     public class WaitingEvent<T extends GenericEvent> {
-        Predicate<T> condition;
-        Consumer<T> action;
+        private final Waiters waiters;
+        private final @Nullable Key key;
+        private final long keyValue;
+        private final Predicate<T> condition;
+        private final Consumer<T> action;
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private volatile @Nullable ScheduledFuture<?> timeout;
 
-        WaitingEvent(Predicate<T> condition, Consumer<T> action) {
+        WaitingEvent(Waiters waiters, @Nullable Key key, long keyValue, Predicate<T> condition, Consumer<T> action) {
+            this.waiters = waiters;
+            this.key = key;
+            this.keyValue = keyValue;
             this.condition = condition;
             this.action = action;
         }
 
-        private boolean attempt(T event) {
-            if (this.condition.test(event)) {
-                EventWaiter.this.pool.execute(() -> this.action.accept(event));
-                return true;
+        // the waiters are indexed by the class of T, so only events of that class reach this
+        @SuppressWarnings("unchecked")
+        private void attempt(GenericEvent event) {
+            if (this.finished.get()) {
+                return;
+            }
+            T typedEvent = (T) event;
+            if (this.condition.test(typedEvent) && finish()) {
+                ScheduledFuture<?> scheduledTimeout = this.timeout;
+                if (scheduledTimeout != null) {
+                    scheduledTimeout.cancel(false);
+                }
+                EventWaiter.this.pool.execute(() -> this.action.accept(typedEvent));
             }
-            return false;
+        }
+
+        /**
+         * @return true if this call finished the waiting, false if it had been finished already
+         */
+        private boolean finish() {
+            if (!this.finished.compareAndSet(false, true)) {
+                return false;
+            }
+            this.waiters.remove(this);
+            return true;
         }
 
         public void cancel() {
-            EventWaiter.this.single.execute(
-                    () -> EventWaiter.this.waitingEvents.values().forEach(set -> set.remove(this))
-            );
+            if (finish()) {
+                ScheduledFuture<?> scheduledTimeout = this.timeout;
+                if (scheduledTimeout != null) {
+                    scheduledTimeout.cancel(false);
+                }
+            }
         }
     }
 
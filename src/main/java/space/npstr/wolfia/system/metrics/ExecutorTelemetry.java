@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.system.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import space.npstr.wolfia.system.Exceptions;
+
+/**
+ * Watches a shared {@link ScheduledThreadPoolExecutor}, so that a saturated pool shows up in our metrics before users
+ * notice the lag:
+ * - a probe regularly schedules a no-op on the pool and records how late it runs
+ * - tasks submitted through the views created by {@link #forRole(String)} record how long they waited for a thread
+ * and how long they ran, tagged by what the pool was used for
+ * - a watchdog on its own thread counts and logs threads that have been running the same task for too long
+ */
+public class ExecutorTelemetry implements AutoCloseable {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ExecutorTelemetry.class);
+
+    private final String poolName;
+    private final ScheduledThreadPoolExecutor pool;
+    private final MetricsService metricsService;
+    private final Duration probeInterval;
+    private final long blockedThresholdNanos;
+    private final Timer lag;
+    private final AtomicInteger blockedThreads;
+    private final ScheduledExecutorService watchdog;
+    private final Map<Thread, RunningTask> running = new ConcurrentHashMap<>();
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param probeInterval    how often the probe and the watchdog run
+     * @param blockedThreshold how long a task may run before its thread counts as blocked
+     */
+    public ExecutorTelemetry(String poolName, ScheduledThreadPoolExecutor pool, MetricsService metricsService,
+                             Duration probeInterval, Duration blockedThreshold) {
+
+        this.poolName = poolName;
+        this.pool = pool;
+        this.metricsService = metricsService;
+        this.probeInterval = probeInterval;
+        this.blockedThresholdNanos = blockedThreshold.toNanos();
+        this.lag = metricsService.executorLag(poolName);
+        this.blockedThreads = metricsService.blockedThreads(poolName);
+
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, poolName + "-pool-watchdog");
+            thread.setDaemon(true);
+            thread.setUncaughtExceptionHandler(Exceptions.UNCAUGHT_EXCEPTION_HANDLER);
+            return thread;
+        });
+        long intervalMillis = probeInterval.toMillis();
+        this.watchdog.scheduleAtFixedRate(this::detectBlockedThreads, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        scheduleProbe();
+    }
+
+    /**
+     * @return a view of the pool whose tasks are measured under the given role. Shutting down the view shuts down the
+     * pool.
+     */
+    public ScheduledExecutorService forRole(String role) {
+        return new RoleView(role);
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.watchdog.shutdownNow();
+    }
+
+    private void scheduleProbe() {
+        if (this.closed || this.pool.isShutdown()) {
+            return;
+        }
+        long due = System.nanoTime() + this.probeInterval.toNanos();
+        this.pool.schedule(() -> {
+            this.lag.record(Math.max(0, System.nanoTime() - due), TimeUnit.NANOSECONDS);
+            scheduleProbe();
+        }, this.probeInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void detectBlockedThreads() {
+        long now = System.nanoTime();
+        int blocked = 0;
+        for (Map.Entry<Thread, RunningTask> entry : this.running.entrySet()) {
+            RunningTask task = entry.getValue();
+            long runningNanos = now - task.started;
+            if (runningNanos < this.blockedThresholdNanos) {
+                continue;
+            }
+            blocked++;
+            if (!task.reported) {
+                task.reported = true;
+                Thread thread = entry.getKey();
+                Throwable stackTrace = new Throwable("Stack trace of " + thread.getName());
+                stackTrace.setStackTrace(thread.getStackTrace());
+                log.warn("Thread {} of the {} pool has been running a {} task for {}ms", thread.getName(),
+                        this.poolName, task.role, TimeUnit.NANOSECONDS.toMillis(runningNanos), stackTrace);
+            }
+        }
+        this.blockedThreads.set(blocked);
+    }
+
+    private static class RunningTask {
+        private final String role;
+        private final long started;
+        private volatile boolean reported = false;
+
+        private RunningTask(String role, long started) {
+            this.role = role;
+            this.started = started;
+        }
+    }
+
+    private class RoleView extends AbstractExecutorService implements ScheduledExecutorService {
+
+        private final String role;
+        private final Timer wait;
+        private final Timer run;
+
+        private RoleView(String role) {
+            this.role = role;
+            this.wait = ExecutorTelemetry.this.metricsService.executorTaskWait(ExecutorTelemetry.this.poolName, role);
+            this.run = ExecutorTelemetry.this.metricsService.executorTaskRun(ExecutorTelemetry.this.poolName, role);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            pool.execute(new MeasuredTask(command, System.nanoTime(), 0));
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            return pool.schedule(new MeasuredTask(command, dueIn(delay, unit), 0), delay, unit);
+        }
+
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            long due = dueIn(delay, unit);
+            return pool.schedule(() -> measure(due, callable), delay, unit);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            return pool.scheduleAtFixedRate(new MeasuredTask(command, dueIn(initialDelay, unit), unit.toNanos(period)),
+                    initialDelay, period, unit);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+            return pool.scheduleWithFixedDelay(new MeasuredTask(command, dueIn(initialDelay, unit), -unit.toNanos(delay)),
+                    initialDelay, delay, unit);
+        }
+
+        @Override
+        public void shutdown() {
+            pool.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return pool.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return pool.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return pool.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return pool.awaitTermination(timeout, unit);
+        }
+
+        private long dueIn(long delay, TimeUnit unit) {
+            return System.nanoTime() + Math.max(0, unit.toNanos(delay));
+        }
+
+        private <V> V measure(long due, Callable<V> callable) throws Exception {
+            long started = System.nanoTime();
+            this.wait.record(Math.max(0, started - due), TimeUnit.NANOSECONDS);
+            Thread thread = Thread.currentThread();
+            running.put(thread, new RunningTask(this.role, started));
+            try {
+                return callable.call();
+            } finally {
+                running.remove(thread);
+                this.run.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * Keeps track of when it is due next, if it is periodic. Positive periods are fixed rate, negative periods are
+         * fixed delay, same as in {@link ScheduledThreadPoolExecutor}.
+         */
+        private class MeasuredTask implements Runnable {
+            private final Runnable task;
+            private final long period;
+            private long due; // periodic tasks never run concurrently with themselves
+
+            private MeasuredTask(Runnable task, long due, long period) {
+                this.task = task;
+                this.due = due;
+                this.period = period;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    measure(this.due, () -> {
+                        this.task.run();
+                        return null;
+                    });
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e); // not thrown by a Runnable
+                } finally {
+                    if (this.period > 0) {
+                        this.due += this.period;
+                    } else if (this.period < 0) {
+                        this.due = System.nanoTime() - this.period;
+                    }
+                }
+            }
+        }
+    }
+}
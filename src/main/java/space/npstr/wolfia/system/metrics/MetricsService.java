@@ -18,15 +18,18 @@
 package space.npstr.wolfia.system.metrics;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import org.springframework.stereotype.Service;
+import space.npstr.wolfia.commands.CommandStage;
 import space.npstr.wolfia.game.GameInfo;
 import space.npstr.wolfia.game.definitions.Games;
 
@@ -39,6 +42,7 @@ public class MetricsService {
     private final MeterRegistry meterRegistry;
 
     private final Map<String, Map<Tags, AtomicInteger>> cache = new ConcurrentHashMap<>();
+    private final Map<StageTimersKey, Map<CommandStage, Timer>> stageTimers = new ConcurrentHashMap<>();
 
     public MetricsService(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
@@ -61,6 +65,13 @@ public Timer queryTime(String name) {
                 .register(meterRegistry);
     }
 
+    public Timer discordEventDispatchTime(String eventType) {
+        return Timer.builder("wolfia.discord.event.dispatch")
+                .description("Time it takes to hand a Discord event to all of its listeners")
+                .tag("event", eventType) //simple class name of the event
+                .register(meterRegistry);
+    }
+
     public Counter gamesPlayed(Games type, GameInfo.GameMode mode) {
         return Counter.builder("wolfia.games.played")
                 .description("Games Played")
@@ -82,6 +93,95 @@ public Timer commandProcessTime(String command) {
                 .register(meterRegistry);
     }
 
+    /**
+     * Looked up for every command, so the timers of a command on a shard are registered once and cached afterwards.
+     *
+     * @param command simple class name of the command
+     */
+    public Map<CommandStage, Timer> commandStageTimes(String command, int shard) {
+        return this.stageTimers.computeIfAbsent(new StageTimersKey(command, shard), key -> {
+            Map<CommandStage, Timer> timers = new EnumMap<>(CommandStage.class);
+            for (CommandStage stage : CommandStage.values()) {
+                timers.put(stage, Timer.builder("wolfia.command.stage")
+                        .description("Time each stage of handling a command takes")
+                        .tag("stage", stage.tagValue)
+                        .tag("command", key.command())
+                        .tag("shard", Integer.toString(key.shard()))
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+            return timers;
+        });
+    }
+
+    private record StageTimersKey(String command, int shard) {}
+
+    public Counter commandsAllowed() {
+        return Counter.builder("wolfia.command.ratelimit.allowed")
+                .description("Commands that passed the rate limits")
+                .register(meterRegistry);
+    }
+
+    public Counter commandsRateLimited(String scope) {
+        return Counter.builder("wolfia.command.ratelimit.dropped")
+                .description("Commands that were dropped for exceeding a rate limit")
+                .tag("scope", scope) //the limit that was exceeded, user or channel
+                .register(meterRegistry);
+    }
+
+    public Counter activityEvents(String result) {
+        return Counter.builder("wolfia.activity.events")
+                .description("User activity events, either recorded or ignored because the user was recorded recently")
+                .tag("result", result) //recorded or debounced
+                .register(meterRegistry);
+    }
+
+    public Timer activitySweepTime(String target) {
+        return Timer.builder("wolfia.activity.sweep")
+                .description("Time it takes to sweep expired user activity")
+                .tag("target", target) //memory or database
+                .register(meterRegistry);
+    }
+
+    public DistributionSummary activitySweepBatchSize(String target) {
+        return DistributionSummary.builder("wolfia.activity.sweep.batch")
+                .description("Amount of expired users in a batch of an activity sweep")
+                .tag("target", target) //memory or database
+                .register(meterRegistry);
+    }
+
+    public Timer gameStartTime(String result) {
+        return Timer.builder("wolfia.game.start")
+                .description("Time it takes to start a game, from the start command till the game is running")
+                .tag("result", result) //started, rejected or failed
+                .register(meterRegistry);
+    }
+
+    public DistributionSummary signUpBatchSize() {
+        return DistributionSummary.builder("wolfia.setup.signup.batch")
+                .description("Amount of ins and outs of a channel written to the database together")
+                .register(meterRegistry);
+    }
+
+    public Timer commandMailboxWaitTime() {
+        return Timer.builder("wolfia.command.mailbox.wait")
+                .description("Time commands spend in their channel's mailbox until they are run")
+                .register(meterRegistry);
+    }
+
+    public DistributionSummary commandMailboxDepth() {
+        return DistributionSummary.builder("wolfia.command.mailbox.depth")
+                .description("Amount of queued commands in a channel's mailbox when a command is added to it")
+                .register(meterRegistry);
+    }
+
+    public AtomicInteger commandMailboxes() {
+        return gauge("wolfia.command.mailboxes", Tags.empty(), builder -> builder
+                .description("Amount of channels with queued or running commands")
+                .register(meterRegistry)
+        );
+    }
+
     /**
      * basically measurement of discord latency, however, ratelimiting  by the library is not accounted for (getting
      * ratelimited in a channel happens rather fast when users spam)
@@ -106,6 +206,53 @@ public AtomicInteger availablePrivateRooms() {
         );
     }
 
+    public Timer executorLag(String pool) {
+        return Timer.builder("wolfia.executor.lag")
+                .description("How late a no-op task scheduled on a pool runs")
+                .tag("pool", pool)
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+    }
+
+    public Timer executorTaskWait(String pool, String role) {
+        return Timer.builder("wolfia.executor.task.wait")
+                .description("Time tasks wait for a thread of a pool after they are due")
+                .tag("pool", pool)
+                .tag("role", role) //what the pool is used for, for example gateway or callback
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Timer executorTaskRun(String pool, String role) {
+        return Timer.builder("wolfia.executor.task.run")
+                .description("Time tasks of a pool take to run")
+                .tag("pool", pool)
+                .tag("role", role) //what the pool is used for, for example gateway or callback
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public AtomicInteger blockedThreads(String pool) {
+        return gauge("wolfia.executor.threads.blocked", Tags.of("pool", pool), builder -> builder
+                .description("Threads of a pool that have been running the same task for too long")
+                .register(meterRegistry)
+        );
+    }
+
+    public AtomicInteger pendingTimers(String timer) {
+        return gauge("wolfia.timer.pending", Tags.of("timer", timer), builder -> builder
+                .description("Timeouts scheduled on a timer wheel that have neither expired nor been cancelled")
+                .register(meterRegistry)
+        );
+    }
+
+    public Timer timerTickLag(String timer) {
+        return Timer.builder("wolfia.timer.tick.lag")
+                .description("How late a timer wheel processes its ticks")
+                .tag("timer", timer)
+                .register(meterRegistry);
+    }
+
     public AtomicInteger ongoingGames() {
         return gauge("wolfia.games.ongoing", Tags.empty(), builder -> builder
                 .description("Ongoing games")
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A set of primitive longs for data that is read on hot paths but rarely written, like the ids of users who opted out
+ * of something. Reads are lock free and allocation free binary searches over a sorted array, writes copy the array.
+ */
+public class CopyOnWriteLongSet {
+
+    private volatile long[] values = new long[0];
+
+    public boolean contains(long value) {
+        return Arrays.binarySearch(this.values, value) >= 0;
+    }
+
+    public int size() {
+        return this.values.length;
+    }
+
+    /**
+     * @return true if the set did not contain the value already
+     */
+    public synchronized boolean add(long value) {
+        long[] current = this.values;
+        int index = Arrays.binarySearch(current, value);
+        if (index >= 0) {
+            return false;
+        }
+        int insertAt = -(index + 1);
+        long[] updated = new long[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, insertAt);
+        updated[insertAt] = value;
+        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        this.values = updated;
+        return true;
+    }
+
+    /**
+     * @return true if the set contained the value
+     */
+    public synchronized boolean remove(long value) {
+        long[] current = this.values;
+        int index = Arrays.binarySearch(current, value);
+        if (index < 0) {
+            return false;
+        }
+        long[] updated = new long[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        this.values = updated;
+        return true;
+    }
+
+    /**
+     * Replace the whole content of this set, for example when (re)loading it from the database.
+     */
+    public synchronized void replaceAll(Collection<Long> newValues) {
+        this.values = newValues.stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+}
@@ -17,14 +17,13 @@
 
 package space.npstr.wolfia.utils;
 
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
 import java.util.function.Consumer;
+import space.npstr.wolfia.game.tools.HashedWheelTimer;
 
 public class PeriodicTimer {
     private final Consumer<Void> updateCallback;
-    private final ScheduledFuture<?> updates;
+    private final HashedWheelTimer.Timeout updates;
     private final Consumer<Void> selfDestructCallback;
 
     /**
@@ -33,14 +32,14 @@ public class PeriodicTimer {
      * @param updateMillis         interval for updates happening
      * @param updateCallback       called on update
      */
-    public PeriodicTimer(ScheduledExecutorService executor, long updateMillis, Consumer<Void> updateCallback,
+    public PeriodicTimer(HashedWheelTimer timer, long updateMillis, Consumer<Void> updateCallback,
                          long selfDestructMillis, Consumer<Void> selfDestructCallback) {
 
         this.updateCallback = updateCallback;
-        this.updates = executor.scheduleAtFixedRate(this::update, updateMillis - 1000, updateMillis, TimeUnit.MILLISECONDS);
+        this.updates = timer.scheduleAtFixedRate(this::update, Duration.ofMillis(updateMillis - 1000), Duration.ofMillis(updateMillis));
 
         this.selfDestructCallback = selfDestructCallback;
-        executor.schedule(this::destruct, selfDestructMillis, TimeUnit.MILLISECONDS);
+        timer.schedule(this::destruct, Duration.ofMillis(selfDestructMillis));
     }
 
     private void update() {
@@ -48,7 +47,7 @@ private void update() {
     }
 
     protected void destruct() {
-        this.updates.cancel(true);
+        this.updates.cancel();
         this.selfDestructCallback.accept(null);
     }
 }
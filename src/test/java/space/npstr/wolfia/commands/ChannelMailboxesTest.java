@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.commands;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ChannelMailboxesTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final ChannelMailboxes mailboxes = new ChannelMailboxes(executor, new MetricsService(new SimpleMeterRegistry()));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void tasksOfSameChannel_runInOrder() {
+        List<Integer> results = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            mailboxes.dispatch(1L, () -> results.add(value));
+        }
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> results.size() == 1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(results.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void blockedChannel_doesNotBlockOtherChannels() throws InterruptedException {
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch otherChannelDone = new CountDownLatch(1);
+        List<String> results = new CopyOnWriteArrayList<>();
+
+        mailboxes.dispatch(1L, () -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            results.add("slow");
+        });
+        mailboxes.dispatch(1L, () -> results.add("after slow"));
+        mailboxes.dispatch(2L, () -> {
+            results.add("other");
+            otherChannelDone.countDown();
+        });
+
+        assertThat(otherChannelDone.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(results).containsExactly("other");
+
+        blocker.countDown();
+        await().atMost(Duration.ofSeconds(10)).until(() -> results.size() == 3);
+        assertThat(results).containsExactly("other", "slow", "after slow");
+    }
+
+    @Test
+    void whenTaskThrows_laterTasksStillRun() {
+        List<String> results = new CopyOnWriteArrayList<>();
+
+        mailboxes.dispatch(1L, () -> {
+            throw new RuntimeException("boom");
+        });
+        mailboxes.dispatch(1L, () -> results.add("still running"));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> results.size() == 1);
+    }
+}
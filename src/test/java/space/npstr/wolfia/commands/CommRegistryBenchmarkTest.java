@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import space.npstr.wolfia.config.properties.WolfiaConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A rough benchmark of command lookups with a growing amount of registered commands. Absolute lookup times depend too
+ * much on the machine running the tests, so they are only logged, and the tests assert that the lookups still find
+ * the right commands.
+ */
+class CommRegistryBenchmarkTest {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(CommRegistryBenchmarkTest.class);
+
+    private static final int LOOKUPS = 200_000;
+    private static final int ROUNDS = 5;
+
+    // only logs timings, lookups are covered by CommRegistryTest
+    @Tag("benchmark")
+    @Test
+    void lookupsFindTheRightCommands_whenCommandCountGrows() {
+        long small = measure(10);
+        long large = measure(10_000);
+
+        log.info("Command lookup: 10 commands {}ns, 10000 commands {}ns per {} lookups", small, large, LOOKUPS);
+    }
+
+    @Test
+    void prefixLookupFindsAllMatchingCommands_with10kCommands() {
+        List<BaseCommand> commands = commands(10_000);
+        CommRegistry commRegistry = new CommRegistry(commands, new WolfiaConfig());
+
+        long started = System.nanoTime();
+        var found = commRegistry.getCommandsStartingWith("TRIGGER12");
+        long took = System.nanoTime() - started;
+
+        // trigger12, trigger120 - trigger129 and trigger1200 - trigger1299, in the order of their triggers
+        assertThat(found).hasSize(111);
+        assertThat(found).allSatisfy(command -> assertThat(command.getTrigger()).startsWith("trigger12"));
+        assertThat(found).extracting(BaseCommand::getTrigger)
+                .startsWith("trigger12", "trigger120", "trigger1200", "trigger1201")
+                .endsWith("trigger1298", "trigger1299");
+        assertThat(commRegistry.getCommandsStartingWith("alias9999")).containsExactly(commands.get(9999));
+        assertThat(commRegistry.getCommandsStartingWith("unknown")).isEmpty();
+
+        log.info("Prefix lookup of {} out of 10000 commands: {}ns", found.size(), took);
+    }
+
+    // best of multiple rounds, to take warmup and GC out of the picture
+    private long measure(int commandCount) {
+        List<BaseCommand> commands = commands(commandCount);
+        String[] inputs = new String[commandCount];
+        for (int i = 0; i < commandCount; i++) {
+            inputs[i] = (i % 2 == 0 ? "TRIGGER" : "Alias") + i;
+        }
+        CommRegistry commRegistry = new CommRegistry(commands, new WolfiaConfig());
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                BaseCommand command = commRegistry.getCommand(inputs[i % commandCount]);
+                if (command != commands.get(i % commandCount)) {
+                    throw new AssertionError("Looked up " + command + " for input " + inputs[i % commandCount]);
+                }
+            }
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        String message = "!!" + inputs[commandCount - 1] + " args";
+        assertThat(commRegistry.getCommand(message, 2, message.indexOf(' '))).isSameAs(commands.get(commandCount - 1));
+        assertThat(commRegistry.getCommand("unknown")).isNull();
+        return best;
+    }
+
+    private static List<BaseCommand> commands(int commandCount) {
+        List<BaseCommand> commands = new ArrayList<>();
+        for (int i = 0; i < commandCount; i++) {
+            commands.add(new FakeCommand("trigger" + i, "alias" + i));
+        }
+        return commands;
+    }
+
+    private record FakeCommand(String trigger, String alias) implements BaseCommand {
+
+        @Override
+        public String getTrigger() {
+            return trigger;
+        }
+
+        @Override
+        public List<String> getAliases() {
+            return List.of(alias);
+        }
+
+        @Override
+        public boolean execute(CommandContext context) {
+            return true;
+        }
+
+        @Override
+        public String help() {
+            return "";
+        }
+    }
+}
@@ -290,6 +290,40 @@ void hasStaffCommand() {
         assertHasCommand("staff", StaffCommand.class);
     }
 
+    @Test
+    void whenLookingUpMixedCase_findCommand() {
+        assertHasCommand("ShOoT", ShootCommand.class);
+        assertHasCommand("VC", VoteCountCommand.class);
+    }
+
+    @Test
+    void whenLookingUpUnknownTrigger_returnNull() {
+        assertThat(commRegistry.getCommand("definitelynotacommand")).isNull();
+    }
+
+    @Test
+    void whenLookingUpATriggerInsideAMessage_findCommand() {
+        String message = "w.ShOoT @someone";
+
+        assertThat(commRegistry.getCommand(message, 2, message.indexOf(' '))).isInstanceOf(ShootCommand.class);
+        assertThat(commRegistry.getCommand(message, 0, message.length())).isNull();
+    }
+
+    @Test
+    void whenLookingUpByPrefix_findAllMatchingCommands() {
+        assertThat(commRegistry.getCommandsStartingWith("vo"))
+                .hasAtLeastOneElementOfType(VoteCommand.class)
+                .hasAtLeastOneElementOfType(VoteCountCommand.class)
+                .allSatisfy(command -> assertThat(command)
+                        .matches(c -> c.getTrigger().startsWith("vo")
+                                || c.getAliases().stream().anyMatch(alias -> alias.startsWith("vo"))));
+    }
+
+    @Test
+    void whenLookingUpByUnknownPrefix_findNothing() {
+        assertThat(commRegistry.getCommandsStartingWith("definitelynot")).isEmpty();
+    }
+
     private void assertHasCommand(String trigger, Class<? extends BaseCommand> clazz) {
         BaseCommand command = commRegistry.getCommand(trigger);
 
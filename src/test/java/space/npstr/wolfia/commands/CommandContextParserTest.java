@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.commands;
+
+import java.util.List;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.junit.jupiter.api.Test;
+import space.npstr.wolfia.config.properties.WolfiaConfig;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CommandContextParserTest {
+
+    private final CommandContextParser parser = new CommandContextParser(mock(MetricsService.class));
+    private final CommRegistry commRegistry = new CommRegistry(List.of(new FakeCommand()), new WolfiaConfig());
+
+    @Test
+    void whenNoPrefix_returnNull() {
+        assertThat(parse("hello there")).isNull();
+        assertThat(parse("w")).isNull();
+        assertThat(parse("")).isNull();
+    }
+
+    @Test
+    void whenOnlyPrefix_returnNull() {
+        assertThat(parse("w.")).isNull();
+        assertThat(parse("w.   ")).isNull();
+    }
+
+    @Test
+    void whenUnknownTrigger_returnNull() {
+        assertThat(parse("w.nope")).isNull();
+        assertThat(parse("w.fakecommandthatisreallylong")).isNull();
+    }
+
+    @Test
+    void whenNoArguments_parseTrigger() {
+        CommandContext context = parse("W.Fake");
+
+        assertThat(context).isNotNull();
+        assertThat(context.command).isInstanceOf(FakeCommand.class);
+        assertThat(context.trigger).isEqualTo("Fake");
+        assertThat(context.args).isEmpty();
+        assertThat(context.rawArgs).isEmpty();
+        assertThat(context.hasArguments()).isFalse();
+    }
+
+    @Test
+    void whenWhitespaceAfterPrefix_parseTrigger() {
+        CommandContext context = parse("w.  f foo");
+
+        assertThat(context).isNotNull();
+        assertThat(context.trigger).isEqualTo("f");
+        assertThat(context.args).containsExactly("foo");
+    }
+
+    @Test
+    void whenArguments_splitByUnicodeWhitespace() {
+        CommandContext context = parse("w.fake  foo\u00A0bar \u2003 baz  ");
+
+        assertThat(context).isNotNull();
+        assertThat(context.args).containsExactly("foo", "bar", "baz");
+        assertThat(context.rawArgs).isEqualTo("foo\u00A0bar \u2003 baz");
+        assertThat(context.hasArguments()).isTrue();
+    }
+
+    @Test
+    void whenArgumentContainsTrigger_keepRawArguments() {
+        CommandContext context = parse("w.fake fake fake");
+
+        assertThat(context).isNotNull();
+        assertThat(context.args).containsExactly("fake", "fake");
+        assertThat(context.rawArgs).isEqualTo("fake fake");
+    }
+
+    private CommandContext parse(String content) {
+        MessageReceivedEvent event = mock(MessageReceivedEvent.class);
+        Message message = mock(Message.class);
+        when(event.getMessage()).thenReturn(message);
+        when(event.getJDA()).thenReturn(mock(JDA.class));
+        when(message.getContentRaw()).thenReturn(content);
+
+        return parser.parse(commRegistry, event);
+    }
+
+    private static class FakeCommand implements BaseCommand {
+
+        @Override
+        public String getTrigger() {
+            return "fake";
+        }
+
+        @Override
+        public List<String> getAliases() {
+            return List.of("f");
+        }
+
+        @Override
+        public boolean execute(CommandContext context) {
+            return true;
+        }
+
+        @Override
+        public String help() {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.commands;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import org.junit.jupiter.api.Test;
+import space.npstr.wolfia.config.properties.RateLimitConfig;
+import space.npstr.wolfia.domain.game.GameRegistry;
+import space.npstr.wolfia.game.Game;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CommandRateLimiterTest {
+
+    private static final long GAME_CHANNEL_ID = 1;
+    private static final long PRIVATE_CHANNEL_ID = 2;
+
+    private final User player = user(10);
+    private final User spammer = user(11);
+    private final GameRegistry gameRegistry = mock(GameRegistry.class);
+    private final CommandRateLimiter rateLimiter;
+
+    CommandRateLimiterTest() {
+        var config = new RateLimitConfig();
+        config.setUserBurst(1);
+        this.rateLimiter = new CommandRateLimiter(config, new MetricsService(new SimpleMeterRegistry()),
+                Clock.fixed(Instant.ofEpochMilli(10_000), ZoneOffset.UTC), this.gameRegistry);
+
+        Game game = mock(Game.class);
+        when(game.isUserPlaying(this.player)).thenReturn(true);
+        when(this.gameRegistry.get(GAME_CHANNEL_ID)).thenReturn(game);
+        when(this.gameRegistry.getAll()).thenReturn(Map.of(GAME_CHANNEL_ID, game));
+    }
+
+    @Test
+    void playersOfARunningGame_areNotUserLimited() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(this.rateLimiter.tryAcquire(command(this.player, GAME_CHANNEL_ID))).isTrue();
+            assertThat(this.rateLimiter.tryAcquire(command(this.player, PRIVATE_CHANNEL_ID))).isTrue();
+        }
+    }
+
+    @Test
+    void otherUsers_areUserLimited() {
+        assertThat(this.rateLimiter.tryAcquire(command(this.spammer, GAME_CHANNEL_ID))).isTrue();
+        assertThat(this.rateLimiter.tryAcquire(command(this.spammer, GAME_CHANNEL_ID))).isFalse();
+        assertThat(this.rateLimiter.tryAcquire(command(this.spammer, PRIVATE_CHANNEL_ID))).isFalse();
+    }
+
+    private static User user(long userId) {
+        User user = mock(User.class);
+        when(user.getIdLong()).thenReturn(userId);
+        return user;
+    }
+
+    private static CommandContext command(User user, long channelId) {
+        MessageChannel channel = mock(MessageChannel.class);
+        when(channel.getIdLong()).thenReturn(channelId);
+        CommandContext context = mock(CommandContext.class);
+        when(context.getInvoker()).thenReturn(user);
+        when(context.getChannel()).thenReturn(channel);
+        return context;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.commands;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketsTest {
+
+    @Test
+    void whenBurstUsedUp_dropUntilRefilled() {
+        var buckets = new TokenBuckets(16, 3, 1000);
+        long now = 10_000;
+
+        assertThat(acquire(buckets, 1, now)).isTrue();
+        assertThat(acquire(buckets, 1, now)).isTrue();
+        assertThat(acquire(buckets, 1, now)).isTrue();
+        assertThat(acquire(buckets, 1, now)).isFalse();
+
+        assertThat(acquire(buckets, 1, now + 999)).isFalse();
+        assertThat(acquire(buckets, 1, now + 1000)).isTrue();
+        assertThat(acquire(buckets, 1, now + 1000)).isFalse();
+
+        assertThat(acquire(buckets, 1, now + 10_000)).isTrue();
+        assertThat(acquire(buckets, 1, now + 10_000)).isTrue();
+        assertThat(acquire(buckets, 1, now + 10_000)).isTrue();
+        assertThat(acquire(buckets, 1, now + 10_000)).isFalse();
+    }
+
+    @Test
+    void hasToken_doesNotTakeIt() {
+        var buckets = new TokenBuckets(16, 1, 1000);
+        long now = 10_000;
+
+        assertThat(buckets.hasToken(1, now)).isTrue();
+        assertThat(buckets.hasToken(1, now)).isTrue();
+
+        buckets.take(1, now);
+        assertThat(buckets.hasToken(1, now)).isFalse();
+        assertThat(buckets.hasToken(1, now + 1000)).isTrue();
+    }
+
+    @Test
+    void differentKeys_haveSeparateBuckets() {
+        var buckets = new TokenBuckets(4096, 1, 1000);
+        long now = 10_000;
+
+        assertThat(acquire(buckets, 267_715_447_101_767_680L, now)).isTrue();
+        assertThat(acquire(buckets, 267_715_447_101_767_680L, now)).isFalse();
+        assertThat(acquire(buckets, 267_715_447_101_767_681L, now)).isTrue();
+    }
+
+    @Test
+    void whenContended_overdrawByAtMostOneTokenPerThread() throws InterruptedException {
+        int burst = 100;
+        int threads = 8;
+        var buckets = new TokenBuckets(16, burst, 1_000_000);
+        var acquired = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (acquire(buckets, 42, 10_000)) {
+                        acquired.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // a thread may take a token between the check and the take of another thread, but only once the bucket is
+        // empty each thread fails its next check
+        assertThat(acquired.get()).isBetween(burst, burst + threads - 1);
+    }
+
+    private static boolean acquire(TokenBuckets buckets, long key, long nowMillis) {
+        if (!buckets.hasToken(key, nowMillis)) {
+            return false;
+        }
+        buckets.take(key, nowMillis);
+        return true;
+    }
+}
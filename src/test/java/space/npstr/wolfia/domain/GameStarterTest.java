@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.domain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.mockito.MockedConstruction;
+import space.npstr.wolfia.ShutdownHandler;
+import space.npstr.wolfia.commands.Context;
+import space.npstr.wolfia.domain.game.GameRegistry;
+import space.npstr.wolfia.domain.maintenance.MaintenanceService;
+import space.npstr.wolfia.domain.settings.ChannelSettingsService;
+import space.npstr.wolfia.domain.setup.GameSetup;
+import space.npstr.wolfia.domain.setup.GameSetupService;
+import space.npstr.wolfia.domain.setup.lastactive.ActivityService;
+import space.npstr.wolfia.game.GameResources;
+import space.npstr.wolfia.game.definitions.Games;
+import space.npstr.wolfia.game.popcorn.Popcorn;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameStarterTest {
+
+    private static final long INVOKER_ID = 42;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GameSetupService gameSetupService = mock(GameSetupService.class);
+    private final MaintenanceService maintenanceService = mock(MaintenanceService.class);
+    private final GameRegistry gameRegistry = mock(GameRegistry.class);
+    private final ChannelSettingsService channelSettingsService = mock(ChannelSettingsService.class, RETURNS_DEEP_STUBS);
+    private final GameStarter gameStarter = new GameStarter(gameSetupService, maintenanceService, gameRegistry,
+            mock(ActivityService.class), channelSettingsService, mock(ShutdownHandler.class),
+            mock(GameResources.class), new MetricsService(meterRegistry));
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        this.pool.shutdownNow();
+    }
+
+    @Test
+    void whileAGameIsBeingStarted_anotherStartInTheSameChannelIsRejected() throws Exception {
+        var entered = new CountDownLatch(2);
+        var release = new CountDownLatch(1);
+        when(this.maintenanceService.getMaintenanceFlag()).thenAnswer(invocation -> {
+            entered.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        Context first = context(1);
+
+        Future<Boolean> firstStart = this.pool.submit(() -> this.gameStarter.startGame(first));
+        Future<Boolean> otherChannelStart = this.pool.submit(() -> this.gameStarter.startGame(context(2)));
+        // both starts are blocked inside the start at the same time, so different channels do not wait on each other
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Context second = context(1);
+        assertThat(this.gameStarter.startGame(second)).isFalse();
+        verify(second.getChannel()).sendMessage(argThat(messageContaining("being started already")));
+
+        release.countDown();
+        assertThat(firstStart.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(otherChannelStart.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(startTimerCount("rejected")).isEqualTo(2);
+
+        // the channel is free again once the first start is done
+        Context third = context(1);
+        assertThat(this.gameStarter.startGame(third)).isFalse();
+        verify(third.getChannel(), never()).sendMessage(argThat(messageContaining("being started already")));
+        assertThat(startTimerCount("rejected")).isEqualTo(3);
+    }
+
+    @Test
+    void whenStartFails_failureIsTimed() {
+        when(this.gameSetupService.channel(anyLong())).thenThrow(new RuntimeException("db is down"));
+
+        assertThatThrownBy(() -> this.gameStarter.startGame(context(1))).isInstanceOf(RuntimeException.class);
+
+        assertThat(startTimerCount("failed")).isEqualTo(1);
+        assertThat(startTimerCount("started")).isZero();
+    }
+
+    @Test
+    void whenGameStarts_startIsTimed() throws Exception {
+        long channelId = 1;
+        var setup = new GameSetup(channelId, new Long[]{INVOKER_ID}, Games.POPCORN.name(), null, null);
+        GameSetupService.Action setupAction = mock(GameSetupService.Action.class);
+        when(this.gameSetupService.channel(channelId)).thenReturn(setupAction);
+        when(setupAction.getOrDefault()).thenReturn(setup);
+        when(setupAction.outInactiveAndLeftPlayers(any(), any())).thenReturn(setup);
+
+        try (MockedConstruction<Popcorn> popcorns = mockConstruction(Popcorn.class,
+                (popcorn, __) -> when(popcorn.isAcceptablePlayerCount(anyInt(), any())).thenReturn(true))) {
+
+            assertThat(this.gameStarter.startGame(context(channelId))).isTrue();
+
+            assertThat(popcorns.constructed()).hasSize(1);
+            verify(this.gameRegistry).set(popcorns.constructed().getFirst());
+        }
+        verify(setupAction).clearInnedUsers();
+        assertThat(startTimerCount("started")).isEqualTo(1);
+    }
+
+    private long startTimerCount(String result) {
+        var timer = this.meterRegistry.find("wolfia.game.start").tag("result", result).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private static ArgumentMatcher<MessageCreateData> messageContaining(String content) {
+        return message -> message != null && message.getContent().contains(content);
+    }
+
+    private static Context context(long channelId) {
+        Context context = mock(Context.class, RETURNS_DEEP_STUBS);
+        MessageChannel channel = mock(MessageChannel.class, RETURNS_DEEP_STUBS);
+        when(channel.getIdLong()).thenReturn(channelId);
+        User invoker = mock(User.class);
+        when(invoker.getIdLong()).thenReturn(INVOKER_ID);
+        when(context.getChannel()).thenReturn(channel);
+        when(context.getInvoker()).thenReturn(invoker);
+        return context;
+    }
+}
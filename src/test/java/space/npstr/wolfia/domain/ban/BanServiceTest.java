@@ -66,6 +66,31 @@ void whenUnbanned_shouldNotBeBanned() {
         assertThat(this.banService.isBanned(userId)).isFalse();
     }
 
+    @Test
+    void whenBannedAndUnbanned_shouldNotBeBanned() {
+        long userId = uniqueLong();
+
+        this.banService.ban(userId);
+        this.banService.unban(userId);
+
+        assertThat(this.banService.isBanned(userId)).isFalse();
+    }
+
+    @Test
+    void givenBanDeletedFromDb_whenReconciled_shouldNotBeBanned() {
+        long userId = uniqueLong();
+        this.banService.ban(userId);
+        this.jooq.transactionResult(config -> config.dsl()
+                .deleteFrom(DISCORD_USER)
+                .where(DISCORD_USER.USER_ID.eq(userId))
+                .execute()
+        );
+
+        this.banService.reconcile();
+
+        assertThat(this.banService.isBanned(userId)).isFalse();
+    }
+
     @Test
     void givenNoBans_whenGetAllBansCalled_returnNoBans() {
         List<Ban> bans = this.banService.getActiveBans();
@@ -24,10 +24,12 @@ import net.dv8tion.jda.api.events.message.MessageReceivedEvent
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Disabled
 import org.junit.jupiter.api.Test
+import org.mockito.kotlin.after
 import org.mockito.kotlin.any
 import org.mockito.kotlin.doAnswer
 import org.mockito.kotlin.eq
 import org.mockito.kotlin.mock
+import org.mockito.kotlin.timeout
 import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.verifyBlocking
@@ -82,15 +84,17 @@ internal class PrivacyServiceTest<T : Session> : ApplicationTest() {
 		whenever(messageReceived.channel).thenReturn(channel)
 		val jda = mock<JDA>()
 		whenever(jda.shardManager).thenReturn(shardManager)
+		whenever(jda.shardInfo).thenReturn(JDA.ShardInfo.SINGLE)
 		whenever(messageReceived.jda).thenReturn(jda)
 		doAnswer { true }.`when`(privacyCommand).execute(any())
+		// commands are run asynchronously in the channel's mailbox
 		commandHandler.onMessageReceived(messageReceived)
-		verify(privacyCommand, times(1)).execute(any())
+		verify(privacyCommand, timeout(5000).times(1)).execute(any())
 		commandHandler.onMessageReceived(messageReceived)
-		verify(privacyCommand, times(2)).execute(any())
+		verify(privacyCommand, timeout(5000).times(2)).execute(any())
 		privacyService.dataDelete(userId)
 		commandHandler.onMessageReceived(messageReceived)
-		verify(privacyCommand, times(2)).execute(any())
+		verify(privacyCommand, after(1000).times(2)).execute(any())
 	}
 
 	@Test
@@ -36,62 +36,66 @@ class ChannelSettingsRepositoryTest extends ApplicationTest {
     private ChannelSettingsRepository repository;
 
     @Test
-    void givenEntryDoesNotExist_whenFetchingDefault_expectDefaultValues() {
+    void givenEntryDoesNotExist_whenFetching_returnNull() {
         long channelId = uniqueLong();
 
-        var settings = this.repository.findOneOrDefault(channelId);
+        var settings = this.repository.findOne(channelId);
 
-        assertThat(settings.getChannelId()).isEqualTo(channelId);
-        assertThat(settings.getAccessRoleId()).isEmpty();
-        assertThat(settings.isAutoOut()).isEqualTo(DEFAULT_AUTO_OUT);
-        assertThat(settings.getTagCooldownMinutes()).isEqualTo(DEFAULT_TAG_COOLDOWN);
-        assertThat(settings.getTagLastUsed()).isEqualTo(DEFAULT_TAG_LAST_USED);
-        assertThat(settings.getTags()).isEmpty();
+        assertThat(settings).isNull();
     }
 
     @Test
-    void givenEntryDoesNotExist_whenFetchingDefault_doNotCreateEntry() {
+    void givenEntryCreated_whenFetching_expectDefaultValues() {
         long channelId = uniqueLong();
+        this.repository.setAutoOut(channelId, DEFAULT_AUTO_OUT);
 
-        var settings = this.repository.findOneOrDefault(channelId);
+        var settings = this.repository.findOne(channelId);
 
+        assertThat(settings).isNotNull();
         assertThat(settings.getChannelId()).isEqualTo(channelId);
-        var created = this.repository.findOne(channelId);
-        assertThat(created).isNull();
+        assertThat(settings.getAccessRoleId()).isEmpty();
+        assertThat(settings.isAutoOut()).isEqualTo(DEFAULT_AUTO_OUT);
+        assertThat(settings.getTagCooldownMinutes()).isEqualTo(DEFAULT_TAG_COOLDOWN);
+        assertThat(settings.getTagLastUsed()).isEqualTo(DEFAULT_TAG_LAST_USED);
+        assertThat(settings.getTags()).isEmpty();
+        // channels without an entry are served these defaults without reading the database
+        var defaults = ChannelSettings.defaults(channelId);
+        assertThat(defaults.getAccessRoleId()).isEqualTo(settings.getAccessRoleId());
+        assertThat(defaults.isAutoOut()).isEqualTo(settings.isAutoOut());
+        assertThat(defaults.isGameChannel()).isEqualTo(settings.isGameChannel());
+        assertThat(defaults.getTagCooldownMinutes()).isEqualTo(settings.getTagCooldownMinutes());
+        assertThat(defaults.getTagLastUsed()).isEqualTo(settings.getTagLastUsed());
+        assertThat(defaults.getTags()).isEqualTo(settings.getTags());
     }
 
     @Test
-    void givenExistingEntry_whenFetchingDefault_returnExistingEntry() {
+    void givenExistingEntry_whenFetching_returnExistingEntry() {
         long channelId = uniqueLong();
         long tagCooldown = uniqueLong();
 
         this.repository.setTagCooldown(channelId, tagCooldown);
 
-        var settings = this.repository.findOneOrDefault(channelId);
+        var settings = this.repository.findOne(channelId);
 
+        assertThat(settings).isNotNull();
         assertThat(settings.getChannelId()).isEqualTo(channelId);
         assertThat(settings.getTagCooldownMinutes()).isEqualTo(tagCooldown);
     }
 
     @Test
-    void givenMixedExistingEntries_whenFetchingDefault_returnRequestedEntries() {
+    void givenMixedExistingEntries_whenFetching_returnOnlyExistingEntries() {
         long channelIdA = uniqueLong();
         long channelIdB = uniqueLong();
 
         this.repository.setTagCooldown(channelIdA, uniqueLong());
 
-        var settingsList = this.repository.findOrDefault(List.of(channelIdA, channelIdB));
+        var settingsList = this.repository.find(List.of(channelIdA, channelIdB));
 
         assertThat(settingsList)
-                .hasSize(2)
-                .anySatisfy(channelSettings ->
+                .singleElement()
+                .satisfies(channelSettings ->
                         assertThat(channelSettings.getChannelId()).isEqualTo(channelIdA)
                 );
-        assertThat(settingsList).anySatisfy(channelSettings ->
-                assertThat(channelSettings.getChannelId()).isEqualTo(channelIdB)
-        );
-        var createdA = this.repository.findOne(channelIdA);
-        assertThat(createdA).isNotNull();
         var createdB = this.repository.findOne(channelIdB);
         assertThat(createdB).isNull();
     }
@@ -17,6 +17,7 @@
 
 package space.npstr.wolfia.domain.settings;
 
+import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,6 +46,77 @@ void whenGetting_correctSettingsIsReturned() {
         assertThat(settings.getChannelId()).isEqualTo(channelId);
     }
 
+    @Test
+    void whenGettingDefault_doNotInsertInDb() {
+        long channelId = uniqueLong();
+
+        var settings = this.service.channel(channelId).getOrDefault();
+
+        assertThat(settings.isGameChannel()).isTrue();
+        assertThat(settings.getTags()).isEmpty();
+        assertThat(this.repository.findOne(channelId)).isNull();
+    }
+
+    @Test
+    void whenGettingAfterSetting_updatedSettingsIsReturned() {
+        long channelId = uniqueLong();
+        long tagCooldown = uniqueLong();
+        var before = this.service.channel(channelId).getOrDefault();
+        assertThat(before.getTagCooldownMinutes()).isNotEqualTo(tagCooldown);
+
+        this.service.channel(channelId).setTagCooldown(tagCooldown);
+
+        var after = this.service.channel(channelId).getOrDefault();
+        assertThat(after.getTagCooldownMinutes()).isEqualTo(tagCooldown);
+    }
+
+    @Test
+    void whenGettingAfterReset_defaultSettingsIsReturned() {
+        long channelId = uniqueLong();
+        this.service.channel(channelId).disableGameChannel();
+        assertThat(this.service.channel(channelId).getOrDefault().isGameChannel()).isFalse();
+
+        this.service.channel(channelId).reset();
+
+        assertThat(this.service.channel(channelId).getOrDefault().isGameChannel()).isTrue();
+    }
+
+    @Test
+    void whenGettingMultiple_existingAndDefaultSettingsAreReturned() {
+        long channelIdA = uniqueLong();
+        long channelIdB = uniqueLong();
+        this.service.channel(channelIdA).disableGameChannel();
+
+        var settingsList = this.service.channels(List.of(channelIdA, channelIdB)).getOrDefault();
+
+        assertThat(settingsList).hasSize(2);
+        assertThat(settingsList).anySatisfy(settings -> {
+            assertThat(settings.getChannelId()).isEqualTo(channelIdA);
+            assertThat(settings.isGameChannel()).isFalse();
+        });
+        assertThat(settingsList).anySatisfy(settings -> {
+            assertThat(settings.getChannelId()).isEqualTo(channelIdB);
+            assertThat(settings.isGameChannel()).isTrue();
+        });
+        assertThat(this.repository.findOne(channelIdB)).isNull();
+    }
+
+    @Test
+    void whenDisablingAndEnablingGameChannel_isGameChannelShouldFollow() {
+        long channelId = uniqueLong();
+        assertThat(this.service.isGameChannel(channelId)).isTrue();
+
+        this.service.channel(channelId).disableGameChannel();
+        assertThat(this.service.isGameChannel(channelId)).isFalse();
+
+        this.service.channel(channelId).enableGameChannel();
+        assertThat(this.service.isGameChannel(channelId)).isTrue();
+
+        this.service.channel(channelId).disableGameChannel();
+        this.service.channel(channelId).reset();
+        assertThat(this.service.isGameChannel(channelId)).isTrue();
+    }
+
     @Test
     void whenSettingAccessRole_accessRoleShouldBeSet() {
         long channelId = uniqueLong();
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.domain.setup;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import space.npstr.wolfia.ApplicationTest;
+import space.npstr.wolfia.db.ExtendedPostgresDSL;
+import space.npstr.wolfia.db.gen.Tables;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * A rough benchmark of outing users from the auto out setups with 100k seeded setups. Absolute query times depend too
+ * much on the machine running the tests, so they are only logged, and the test asserts that the locking lookup is
+ * backed by the index instead of scanning all setups.
+ */
+@Tag("benchmark")
+class GameSetupRepositoryBenchmarkTest extends ApplicationTest {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(GameSetupRepositoryBenchmarkTest.class);
+
+    // negative ids are never handed out by uniqueLong(), so the seeded rows can't collide with other tests
+    private static final long BASE = -1_000_000_000L;
+    private static final int SETUPS = 100_000;
+    private static final int INNED_PER_SETUP = 8;
+    private static final int LOOKUPS = 200;
+
+    @Autowired
+    private DSLContext jooq;
+
+    @Autowired
+    private GameSetupRepository repository;
+
+    @AfterEach
+    void cleanUp() {
+        this.jooq.deleteFrom(Tables.GAME_SETUP)
+                .where(Tables.GAME_SETUP.CHANNEL_ID.between(BASE - SETUPS, BASE - 1))
+                .execute();
+        this.jooq.deleteFrom(Tables.CHANNEL_SETTINGS)
+                .where(Tables.CHANNEL_SETTINGS.CHANNEL_ID.between(BASE - SETUPS, BASE - 1))
+                .execute();
+    }
+
+    @Test
+    void outUsersFromAutoOutSetups_isIndexBacked_with100kSetups() {
+        seed();
+
+        // the same statements GameSetupRepository#outUsersFromAutoOutSetups runs in its transaction
+        Long[] userIds = {innedUser(SETUPS / 2, 1)};
+        var lockPlan = this.jooq.explain(this.jooq
+                        .select(Tables.GAME_SETUP.CHANNEL_ID, Tables.GAME_SETUP.INNED_USERS)
+                        .from(Tables.GAME_SETUP)
+                        .join(Tables.CHANNEL_SETTINGS).on(Tables.GAME_SETUP.CHANNEL_ID.eq(Tables.CHANNEL_SETTINGS.CHANNEL_ID))
+                        .where(Tables.CHANNEL_SETTINGS.AUTO_OUT.isTrue())
+                        .and(DSL.condition("{0} && {1}", Tables.GAME_SETUP.INNED_USERS, DSL.value(userIds)))
+                        .forUpdate().of(Tables.GAME_SETUP))
+                .plan();
+        log.info("Auto out locking lookup plan:\n{}", lockPlan);
+        assertThat(lockPlan).contains("game_setup_inned_users_idx");
+
+        var updatePlan = this.jooq.explain(this.jooq
+                        .update(Tables.GAME_SETUP)
+                        .set(Tables.GAME_SETUP.INNED_USERS, ExtendedPostgresDSL.arrayDiff(Tables.GAME_SETUP.INNED_USERS, userIds))
+                        .where(Tables.GAME_SETUP.CHANNEL_ID.in(BASE - SETUPS / 2)))
+                .plan();
+        log.info("Auto out update plan:\n{}", updatePlan);
+
+        long started = System.nanoTime();
+        for (int i = 1; i <= LOOKUPS; i++) {
+            int setup = i * (SETUPS / LOOKUPS);
+            long userId = innedUser(setup, 1);
+            Map<Long, Set<Long>> outed = this.repository.outUsersFromAutoOutSetups(Set.of(userId));
+            assertThat(outed).containsOnly(entry(BASE - setup, Set.of(userId)));
+        }
+        long single = (System.nanoTime() - started) / LOOKUPS;
+
+        Set<Long> manyUsers = new HashSet<>();
+        for (int i = 1; i <= 1000; i++) {
+            manyUsers.add(innedUser(i * (SETUPS / 1000), 2));
+        }
+        started = System.nanoTime();
+        Map<Long, Set<Long>> outed = this.repository.outUsersFromAutoOutSetups(manyUsers);
+        long bulk = System.nanoTime() - started;
+        assertThat(outed).hasSize(1000);
+        assertThat(outed.values()).allSatisfy(users -> assertThat(users).hasSize(1));
+
+        log.info("Outing from auto out setups with {} setups: {}us per single user, {}us for 1000 users at once",
+                SETUPS, single / 1000, bulk / 1000);
+    }
+
+    private void seed() {
+        this.jooq.execute("""
+                        INSERT INTO game_setup (channel_id, inned_users)
+                        SELECT ? - s, ARRAY(SELECT ? - s * 10 - i FROM generate_series(1, ?) i)
+                        FROM generate_series(1, ?) s""",
+                BASE, BASE, INNED_PER_SETUP, SETUPS);
+        this.jooq.execute("""
+                        INSERT INTO channel_settings (channel_id, auto_out)
+                        SELECT ? - s, true
+                        FROM generate_series(1, ?) s""",
+                BASE, SETUPS);
+        this.jooq.execute("ANALYZE game_setup");
+        this.jooq.execute("ANALYZE channel_settings");
+    }
+
+    // the users of each setup are unique to it
+    private static long innedUser(int setup, int index) {
+        return BASE - setup * 10L - index;
+    }
+}
@@ -18,7 +18,7 @@
 package space.npstr.wolfia.domain.setup;
 
 import java.time.Duration;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
@@ -29,6 +29,7 @@
 import space.npstr.wolfia.game.definitions.Games;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static space.npstr.wolfia.TestUtil.uniqueLong;
 
 class GameSetupRepositoryTest extends ApplicationTest {
@@ -44,39 +45,45 @@ class GameSetupRepositoryTest extends ApplicationTest {
     private ChannelSettingsService channelSettingsService;
 
     @Test
-    void givenEntryDoesNotExist_whenFetchingDefault_expectDefaultValues() {
+    void givenEntryDoesNotExist_whenFetching_returnNull() {
         long channelId = uniqueLong();
 
-        var setup = this.repository.findOneOrDefault(channelId);
+        var setup = this.repository.findOne(channelId);
 
-        assertThat(setup.getChannelId()).isEqualTo(channelId);
-        assertThat(setup.getInnedUsers()).isEmpty();
-        assertThat(setup.getGame()).isEqualTo(DEFAULT_GAME);
-        assertThat(setup.getMode()).isEqualTo(DEFAULT_MODE);
-        assertThat(setup.getDayLength()).isEqualTo(DEFAULT_DAY_LENGTH);
+        assertThat(setup).isNull();
     }
 
     @Test
-    void givenEntryDoesNotExist_whenFetchingDefault_doNotCreateEntry() {
+    void givenEntryCreated_whenFetching_expectDefaultValues() {
         long channelId = uniqueLong();
+        this.repository.inUsers(channelId, Set.of());
 
-        var setup = this.repository.findOneOrDefault(channelId);
+        var setup = this.repository.findOne(channelId);
 
+        assertThat(setup).isNotNull();
         assertThat(setup.getChannelId()).isEqualTo(channelId);
-        var created = this.repository.findOne(channelId);
-        assertThat(created).isNull();
+        assertThat(setup.getInnedUsers()).isEmpty();
+        assertThat(setup.getGame()).isEqualTo(DEFAULT_GAME);
+        assertThat(setup.getMode()).isEqualTo(DEFAULT_MODE);
+        assertThat(setup.getDayLength()).isEqualTo(DEFAULT_DAY_LENGTH);
+        // channels without an entry are served these defaults without reading the database
+        var defaults = GameSetup.defaults(channelId);
+        assertThat(defaults.getGame()).isEqualTo(setup.getGame());
+        assertThat(defaults.getMode()).isEqualTo(setup.getMode());
+        assertThat(defaults.getDayLength()).isEqualTo(setup.getDayLength());
     }
 
     @Test
-    void givenExistingEntry_whenFetchingDefault_returnExistingEntry() {
+    void givenExistingEntry_whenFetching_returnExistingEntry() {
         long channelId = uniqueLong();
         Games game = Games.MAFIA;
         // ensure this test stays viable when defaults are changed
         assertThat(game).isNotEqualTo(DEFAULT_GAME);
         this.repository.setGame(channelId, game);
 
-        var settings = this.repository.findOneOrDefault(channelId);
+        var settings = this.repository.findOne(channelId);
 
+        assertThat(settings).isNotNull();
         assertThat(settings.getChannelId()).isEqualTo(channelId);
         assertThat(settings.getInnedUsers()).isEmpty();
         assertThat(settings.getGame()).isEqualTo(game);
@@ -84,21 +91,22 @@ void givenExistingEntry_whenFetchingDefault_returnExistingEntry() {
     }
 
     @Test
-    void givenUserInnedInOneAutoOutSetup_whenFindAutoOutSetupsWhereUserIsInned_returnOneAutoOutSetup() {
+    void givenUserInnedInOneAutoOutSetup_whenOutUsersFromAutoOutSetups_outUserFromThatSetup() {
         long channelId = uniqueLong();
         long userId = uniqueLong();
+        long otherUserId = uniqueLong();
         this.channelSettingsService.channel(channelId).enableAutoOut();
-        this.repository.inUsers(channelId, Set.of(userId));
+        this.repository.inUsers(channelId, Set.of(userId, otherUserId));
 
-        List<GameSetup> setups = this.repository.findAutoOutSetupsWhereUserIsInned(userId);
+        Map<Long, Set<Long>> outed = this.repository.outUsersFromAutoOutSetups(Set.of(userId));
 
-        assertThat(setups)
-                .singleElement()
-                .satisfies(isSetupInChannel(channelId));
+        assertThat(outed).containsOnly(entry(channelId, Set.of(userId)));
+        assertThat(this.repository.findOne(channelId))
+                .satisfies(hasInnedUsers(otherUserId));
     }
 
     @Test
-    void givenUserInnedInMultipleAutoOutSetups_whenFindAutoOutSetupsWhereUserIsInned_returnAllAutoOutSetupWhereUserInned() {
+    void givenUserInnedInMultipleAutoOutSetups_whenOutUsersFromAutoOutSetups_outUserFromAllOfThem() {
         long channelIdA = uniqueLong();
         long channelIdB = uniqueLong();
         long userId = uniqueLong();
@@ -107,15 +115,15 @@ void givenUserInnedInMultipleAutoOutSetups_whenFindAutoOutSetupsWhereUserIsInned
         this.repository.inUsers(channelIdA, Set.of(userId));
         this.repository.inUsers(channelIdB, Set.of(userId));
 
-        List<GameSetup> setups = this.repository.findAutoOutSetupsWhereUserIsInned(userId);
+        Map<Long, Set<Long>> outed = this.repository.outUsersFromAutoOutSetups(Set.of(userId));
 
-        assertThat(setups).hasSize(2);
-        assertThat(setups).filteredOnAssertions(isSetupInChannel(channelIdA)).hasSize(1);
-        assertThat(setups).filteredOnAssertions(isSetupInChannel(channelIdB)).hasSize(1);
+        assertThat(outed).containsOnly(entry(channelIdA, Set.of(userId)), entry(channelIdB, Set.of(userId)));
+        assertThat(this.repository.findOne(channelIdA)).satisfies(hasInnedUsers());
+        assertThat(this.repository.findOne(channelIdB)).satisfies(hasInnedUsers());
     }
 
     @Test
-    void givenUserInnedInMultipleSetups_whenFindAutoOutSetupsWhereUserIsInned_returnAllAutoOutSetupWhereUserInned() {
+    void givenUserInnedInMultipleSetups_whenOutUsersFromAutoOutSetups_keepUserInSetupsWithoutAutoOut() {
         long channelIdAutoOut = uniqueLong();
         long channelIdNoAutoOut = uniqueLong();
         long userId = uniqueLong();
@@ -124,14 +132,36 @@ void givenUserInnedInMultipleSetups_whenFindAutoOutSetupsWhereUserIsInned_return
         this.repository.inUsers(channelIdAutoOut, Set.of(userId));
         this.repository.inUsers(channelIdNoAutoOut, Set.of(userId));
 
-        List<GameSetup> setups = this.repository.findAutoOutSetupsWhereUserIsInned(userId);
+        Map<Long, Set<Long>> outed = this.repository.outUsersFromAutoOutSetups(Set.of(userId));
+
+        assertThat(outed).containsOnlyKeys(channelIdAutoOut);
+        assertThat(this.repository.findOne(channelIdAutoOut)).satisfies(hasInnedUsers());
+        assertThat(this.repository.findOne(channelIdNoAutoOut)).satisfies(hasInnedUsers(userId));
+    }
+
+    @Test
+    void givenUsersInnedInDifferentAutoOutSetups_whenOutUsersFromAutoOutSetups_outOnlyThoseUsers() {
+        long channelIdA = uniqueLong();
+        long channelIdB = uniqueLong();
+        long channelIdOther = uniqueLong();
+        long userIdA = uniqueLong();
+        long userIdB = uniqueLong();
+        long otherUserId = uniqueLong();
+        this.channelSettingsService.channel(channelIdA).enableAutoOut();
+        this.channelSettingsService.channel(channelIdB).enableAutoOut();
+        this.channelSettingsService.channel(channelIdOther).enableAutoOut();
+        this.repository.inUsers(channelIdA, Set.of(userIdA));
+        this.repository.inUsers(channelIdB, Set.of(userIdA, userIdB));
+        this.repository.inUsers(channelIdOther, Set.of(otherUserId));
+
+        Map<Long, Set<Long>> outed = this.repository.outUsersFromAutoOutSetups(Set.of(userIdA, userIdB));
 
-        assertThat(setups).hasSize(1);
-        assertThat(setups).filteredOnAssertions(isSetupInChannel(channelIdAutoOut)).hasSize(1);
+        assertThat(outed).containsOnly(entry(channelIdA, Set.of(userIdA)), entry(channelIdB, Set.of(userIdA, userIdB)));
+        assertThat(this.repository.findOne(channelIdOther)).satisfies(hasInnedUsers(otherUserId));
     }
 
-    private Consumer<GameSetup> isSetupInChannel(long channelId) {
-        return actual -> assertThat(actual.getChannelId()).isEqualTo(channelId);
+    private Consumer<GameSetup> hasInnedUsers(Long... userIds) {
+        return actual -> assertThat(actual.getInnedUsers()).containsExactlyInAnyOrder(userIds);
     }
 
 }
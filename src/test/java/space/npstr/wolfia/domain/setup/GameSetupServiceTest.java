@@ -22,6 +22,7 @@
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import space.npstr.wolfia.ApplicationTest;
+import space.npstr.wolfia.domain.settings.ChannelSettingsService;
 import space.npstr.wolfia.game.GameInfo;
 import space.npstr.wolfia.game.definitions.Games;
 
@@ -36,6 +37,9 @@ class GameSetupServiceTest extends ApplicationTest {
     @Autowired
     private GameSetupRepository repository;
 
+    @Autowired
+    private ChannelSettingsService channelSettingsService;
+
 
     @Test
     void whenGetting_correctSetupsIsReturned() {
@@ -46,6 +50,45 @@ void whenGetting_correctSetupsIsReturned() {
         assertThat(setup.getChannelId()).isEqualTo(channelId);
     }
 
+    @Test
+    void whenGettingUnknownSetup_noEntryShouldBeCreated() {
+        long channelId = uniqueLong();
+
+        var setup = this.service.channel(channelId).getOrDefault();
+
+        assertThat(setup.getInnedUsers()).isEmpty();
+        assertThat(this.repository.findOne(channelId)).isNull();
+    }
+
+    @Test
+    void givenSetupWasRead_whenUserInned_readShouldReturnUpdatedSetup() {
+        long channelId = uniqueLong();
+        long userId = uniqueLong();
+        this.service.channel(channelId).getOrDefault();
+
+        this.service.channel(channelId).inUser(userId);
+
+        assertThat(this.service.channel(channelId).getOrDefault().getInnedUsers()).containsExactly(userId);
+    }
+
+
+    @Test
+    void whenUsersInnedAsync_shouldBeWrittenTogether() {
+        long channelId = uniqueLong();
+        long userA = uniqueLong();
+        long userB = uniqueLong();
+
+        var inA = this.service.channel(channelId).inUserAsync(userA);
+        var inB = this.service.channel(channelId).inUserAsync(userB);
+
+        assertThat(this.service.channel(channelId).getOrDefault().getInnedUsers()).containsExactlyInAnyOrder(userA, userB);
+        inA.join();
+        assertThat(inB.join().getInnedUsers()).containsExactlyInAnyOrder(userA, userB);
+        var setup = this.repository.findOne(channelId);
+        assertThat(setup).isNotNull();
+        assertThat(setup.getInnedUsers()).containsExactlyInAnyOrder(userA, userB);
+    }
+
 
     @Test
     void whenGameSet_gameShouldBeSet() {
@@ -226,6 +269,50 @@ void givenUsersAreIn_whenUsersOuted_userssShouldNotBeIn() {
         assertThat(setup.getInnedUsers()).doesNotContain(userA, userB);
     }
 
+    @Test
+    void givenUsersInnedInAutoOutSetups_whenOutedDueToInactivity_onlyThoseUsersShouldBeOutedFromAutoOutSetups() {
+        long channelA = uniqueLong();
+        long channelB = uniqueLong();
+        long channelNoAutoOut = uniqueLong();
+        long userA = uniqueLong();
+        long userB = uniqueLong();
+        long userActive = uniqueLong();
+        this.channelSettingsService.channel(channelA).enableAutoOut();
+        this.channelSettingsService.channel(channelB).enableAutoOut();
+        this.channelSettingsService.channel(channelNoAutoOut).disableAutoOut();
+        this.repository.inUsers(channelA, Set.of(userA, userActive));
+        this.repository.inUsers(channelB, Set.of(userA, userB));
+        this.repository.inUsers(channelNoAutoOut, Set.of(userA));
+
+        this.service.outUsersDueToInactivity(Set.of(userA, userB), this.shardManager);
+
+        var setupA = this.repository.findOne(channelA);
+        assertThat(setupA).isNotNull();
+        assertThat(setupA.getInnedUsers()).containsExactly(userActive);
+        var setupB = this.repository.findOne(channelB);
+        assertThat(setupB).isNotNull();
+        assertThat(setupB.getInnedUsers()).isEmpty();
+        var setupNoAutoOut = this.repository.findOne(channelNoAutoOut);
+        assertThat(setupNoAutoOut).isNotNull();
+        assertThat(setupNoAutoOut.getInnedUsers()).containsExactly(userA);
+    }
+
+    @Test
+    void whenInactivePlayersOuted_onlyInnedInactiveUsersShouldBeOuted() {
+        long channelId = uniqueLong();
+        long activeUser = uniqueLong();
+        long inactiveUser = uniqueLong();
+        long otherUser = uniqueLong();
+        this.service.channel(channelId).inUsers(Set.of(activeUser, inactiveUser));
+
+        var setup = this.service.channel(channelId)
+                .outInactiveAndLeftPlayers(Set.of(inactiveUser, otherUser), this.shardManager);
+
+        assertThat(setup.getInnedUsers()).containsExactly(activeUser);
+        var stored = this.repository.findOne(channelId);
+        assertThat(stored).isNotNull();
+        assertThat(stored.getInnedUsers()).containsExactly(activeUser);
+    }
 
     @Test
     void whenDelete_thenDeleteFromDb() {
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package space.npstr.wolfia.domain.setup
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import java.time.Duration
+import java.util.concurrent.CompletionException
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import space.npstr.wolfia.system.metrics.MetricsService
+
+internal class SignUpCoalescerTest {
+
+	private data class Write(val channelId: Long, val inned: Set<Long>, val outed: Set<Long>)
+
+	private val scheduler = Executors.newSingleThreadScheduledExecutor()
+	private val writes = CopyOnWriteArrayList<Write>()
+	private val written = CopyOnWriteArrayList<GameSetup>()
+	private var innedUsers: Set<Long> = setOf()
+	private var failing = false
+
+	@AfterEach
+	fun tearDown() {
+		scheduler.shutdownNow()
+	}
+
+	private fun coalescer(window: Duration): SignUpCoalescer {
+		return SignUpCoalescer(
+			window,
+			scheduler,
+			MetricsService(SimpleMeterRegistry()).signUpBatchSize(),
+			{ channelId, inned, outed ->
+				if (failing) throw IllegalStateException("db is down")
+				writes.add(Write(channelId, inned, outed))
+				innedUsers = innedUsers + inned - outed
+				GameSetup.defaults(channelId).withInnedUsers(innedUsers)
+			},
+			{ written.add(it) },
+		)
+	}
+
+	@Test
+	fun whenSubmittedWithinWindow_writtenOnce() {
+		val coalescer = coalescer(Duration.ofMillis(50))
+
+		val futures = (1L..20L).map { coalescer.submit(1, setOf(it), true) }
+
+		val setups = futures.map { it.join() }
+		assertThat(writes).containsExactly(Write(1, (1L..20L).toSet(), setOf()))
+		assertThat(setups).allSatisfy { assertThat(it.innedUsers).hasSize(20) }
+		assertThat(written).hasSize(1)
+	}
+
+	@Test
+	fun whenUserInsAndOuts_lastIntentWins() {
+		val coalescer = coalescer(Duration.ofHours(1))
+
+		coalescer.submit(1, setOf(1), true)
+		coalescer.submit(1, setOf(2), true)
+		coalescer.submit(1, setOf(1), false)
+		coalescer.flush(1)
+
+		assertThat(writes).containsExactly(Write(1, setOf(2), setOf(1)))
+	}
+
+	@Test
+	fun givenPendingIntents_setupIncludesThem() {
+		val coalescer = coalescer(Duration.ofHours(1))
+		innedUsers = setOf(1, 2)
+
+		coalescer.submit(1, setOf(3), true)
+		coalescer.submit(1, setOf(1), false)
+
+		val setup = coalescer.withPending(GameSetup.defaults(1).withInnedUsers(innedUsers))
+		assertThat(setup.innedUsers).containsExactlyInAnyOrder(2, 3)
+		assertThat(writes).isEmpty()
+	}
+
+	@Test
+	fun givenPendingIntents_whenApplied_writtenTogether() {
+		val coalescer = coalescer(Duration.ofHours(1))
+		val pending = coalescer.submit(1, setOf(1), true)
+
+		val setup = coalescer.apply(1, setOf(2), true)
+
+		assertThat(writes).containsExactly(Write(1, setOf(1, 2), setOf()))
+		assertThat(pending.join()).isSameAs(setup)
+	}
+
+	@Test
+	fun givenPendingIntents_exclusiveRunsAfterThemAreWritten() {
+		val coalescer = coalescer(Duration.ofHours(1))
+		coalescer.submit(1, setOf(1), true)
+
+		val writesBefore = coalescer.exclusive(1) { writes.size }
+
+		assertThat(writesBefore).isEqualTo(1)
+	}
+
+	@Test
+	fun givenOtherChannel_notWrittenTogether() {
+		val coalescer = coalescer(Duration.ofHours(1))
+		coalescer.submit(1, setOf(1), true)
+		coalescer.submit(2, setOf(1), true)
+
+		coalescer.flush(1)
+
+		assertThat(writes).containsExactly(Write(1, setOf(1), setOf()))
+	}
+
+	@Test
+	fun whenWriteFails_waitersCompleteExceptionally() {
+		val coalescer = coalescer(Duration.ofHours(1))
+		val pending = coalescer.submit(1, setOf(1), true)
+		failing = true
+
+		assertThatThrownBy { coalescer.flush(1) }.isInstanceOf(IllegalStateException::class.java)
+		assertThatThrownBy { pending.join() }
+			.isInstanceOf(CompletionException::class.java)
+			.hasCauseInstanceOf(IllegalStateException::class.java)
+	}
+}
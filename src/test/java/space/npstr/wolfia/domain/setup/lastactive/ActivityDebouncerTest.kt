@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.domain.setup.lastactive
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+
+internal class ActivityDebouncerTest {
+
+	private val debouncer = ActivityDebouncer(16, 1000)
+
+	@Test
+	fun whenRecordedWithinWindow_isDebounced() {
+		assertThat(debouncer.shouldRecord(1, 10_000)).isTrue
+		assertThat(debouncer.shouldRecord(1, 10_500)).isFalse
+		assertThat(debouncer.shouldRecord(1, 10_999)).isFalse
+	}
+
+	@Test
+	fun whenWindowPassed_isRecordedAgain() {
+		assertThat(debouncer.shouldRecord(1, 10_000)).isTrue
+		assertThat(debouncer.shouldRecord(1, 11_000)).isTrue
+		assertThat(debouncer.shouldRecord(1, 11_500)).isFalse
+	}
+
+	@Test
+	fun usersAreDebouncedIndependently() {
+		assertThat(debouncer.shouldRecord(1, 10_000)).isTrue
+		assertThat(debouncer.shouldRecord(2, 10_000)).isTrue
+		assertThat(debouncer.shouldRecord(2, 10_100)).isFalse
+	}
+
+	@Test
+	fun whenUsersShareASlot_theyAreRecordedAgain() {
+		val singleSlot = ActivityDebouncer(1, 1000)
+
+		assertThat(singleSlot.shouldRecord(1, 10_000)).isTrue
+		assertThat(singleSlot.shouldRecord(2, 10_100)).isTrue
+		assertThat(singleSlot.shouldRecord(1, 10_200)).isTrue
+	}
+}
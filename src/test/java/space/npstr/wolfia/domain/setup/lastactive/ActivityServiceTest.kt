@@ -19,10 +19,14 @@ package space.npstr.wolfia.domain.setup.lastactive
 import java.time.Duration
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
+import org.mockito.Mockito.doReturn
 import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.context.ApplicationEventPublisher
 import space.npstr.wolfia.ApplicationTest
-import space.npstr.wolfia.TestUtil.sleep
 import space.npstr.wolfia.TestUtil.uniqueLong
+import space.npstr.wolfia.config.properties.ActivityConfig
+import space.npstr.wolfia.config.properties.WolfiaConfig
+import space.npstr.wolfia.system.metrics.MetricsService
 
 internal class ActivityServiceTest : ApplicationTest() {
 
@@ -32,6 +36,18 @@ internal class ActivityServiceTest : ApplicationTest() {
 	@Autowired
 	private lateinit var repository: LastActiveRepository
 
+	@Autowired
+	private lateinit var wolfiaConfig: WolfiaConfig
+
+	@Autowired
+	private lateinit var activityConfig: ActivityConfig
+
+	@Autowired
+	private lateinit var metricsService: MetricsService
+
+	@Autowired
+	private lateinit var eventPublisher: ApplicationEventPublisher
+
 	@Test
 	fun whenActivityRecorded_isActiveRecentlyFromBuffer() {
 		val userId = uniqueLong()
@@ -41,13 +57,22 @@ internal class ActivityServiceTest : ApplicationTest() {
 		assertThat(service.wasActiveRecently(userId)).isTrue
 	}
 
+	@Test
+	fun inactiveOf_returnsOnlyInactiveUsers() {
+		val activeUserId = uniqueLong()
+		val inactiveUserId = uniqueLong()
+		service.recordActivity(activeUserId)
+
+		assertThat(service.inactiveOf(listOf(activeUserId, inactiveUserId))).containsExactly(inactiveUserId)
+	}
+
 	@Test
 	fun whenActivityRecorded_isNotInDbBeforeFlush() {
 		val userId = uniqueLong()
 
 		service.recordActivity(userId)
 
-		assertThat(repository.wasActiveRecently(userId)).isFalse
+		assertThat(repository.findAllExpiries()).doesNotContainKey(userId)
 	}
 
 	@Test
@@ -57,7 +82,7 @@ internal class ActivityServiceTest : ApplicationTest() {
 
 		service.flush()
 
-		assertThat(repository.wasActiveRecently(userId)).isTrue
+		assertThat(repository.findAllExpiries()).containsKey(userId)
 	}
 
 	@Test
@@ -71,17 +96,33 @@ internal class ActivityServiceTest : ApplicationTest() {
 
 		service.flush()
 
-		assertThat(repository.wasActiveRecently(userIdA)).isTrue
-		assertThat(repository.wasActiveRecently(userIdB)).isTrue
-		assertThat(repository.wasActiveRecently(userIdC)).isTrue
+		assertThat(repository.findAllExpiries()).containsKeys(userIdA, userIdB, userIdC)
+	}
+
+	@Test
+	fun whenActivityRestoredFromDb_isActiveUntilItExpires() {
+		val userId = uniqueLong()
+		val now = clock.millis()
+		repository.saveExpiries(mapOf(userId to now + 1000), Duration.ofSeconds(1))
+
+		val restored = ActivityService(repository, wolfiaConfig, activityConfig, metricsService, clock, eventPublisher)
+		assertThat(restored.wasActiveRecently(userId)).isTrue
+
+		doReturn(now + 2000).`when`(clock).millis()
+		assertThat(restored.wasActiveRecently(userId)).isFalse
 	}
 
 	@Test
-	fun whenFlushedWithExpiredTimeout_isNotActive() {
+	fun whenActivityExpired_isNotActive_andDeletedFromDbOnSweep() {
 		val userId = uniqueLong()
-		repository.recordActivity(userId, Duration.ofMillis(50))
-		sleep(Duration.ofMillis(60))
+		service.recordActivity(userId)
+		service.flush()
+		doReturn(System.currentTimeMillis() + Duration.ofHours(1).toMillis()).`when`(clock).millis()
 
+		service.expire()
 		assertThat(service.wasActiveRecently(userId)).isFalse
+
+		service.sweepDatabase()
+		assertThat(repository.findAllExpiries()).doesNotContainKey(userId)
 	}
 }
@@ -21,10 +21,11 @@
 import org.springframework.beans.factory.annotation.Autowired;
 import space.npstr.wolfia.ApplicationTest;
 
-import static org.awaitility.Durations.ONE_HUNDRED_MILLISECONDS;
+import static org.awaitility.Durations.ONE_HOUR;
 import static org.awaitility.Durations.ONE_MINUTE;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static space.npstr.wolfia.TestUtil.uniqueLong;
@@ -32,15 +33,16 @@
 class AutoOuterTest extends ApplicationTest {
 
     @Autowired
-    private LastActiveRepository lastActiveRepository;
+    private ActivityService activityService;
 
     @Test
     void whenUserActivityTimeouts_outUser() {
         long userId = uniqueLong();
-        lastActiveRepository.recordActivity(userId, ONE_HUNDRED_MILLISECONDS);
+        activityService.recordActivity(userId);
+        doReturn(System.currentTimeMillis() + ONE_HOUR.toMillis()).when(clock).millis();
 
         // expiration check scheduler runs every second
-        verify(gameSetupService, timeout(ONE_MINUTE.toMillis())).outUserDueToInactivity(eq(userId), any());
+        verify(gameSetupService, timeout(ONE_MINUTE.toMillis())).outUsersDueToInactivity(argThat(userIds -> userIds.contains(userId)), any());
     }
 
 }
@@ -29,30 +29,50 @@ internal class LastActiveRepositoryTest : ApplicationTest() {
 	private lateinit var repository: LastActiveRepository
 
 	@Test
-	fun whenNotActive_returnFalse() {
-		val active = repository.wasActiveRecently(TestUtil.uniqueLong())
+	fun whenNotSaved_hasNoExpiry() {
+		val expiries = repository.findAllExpiries()
 
-		assertThat(active).isFalse
+		assertThat(expiries).doesNotContainKey(TestUtil.uniqueLong())
 	}
 
 	@Test
-	fun whenActive_returnTrue() {
+	fun whenSaved_hasExpiry() {
 		val userId = TestUtil.uniqueLong()
-		repository.recordActivity(userId, Duration.ofHours(1))
+		val expires = System.currentTimeMillis() + Duration.ofHours(1).toMillis()
+		repository.saveExpiries(mapOf(userId to expires), Duration.ofHours(1))
 
-		val active = repository.wasActiveRecently(userId)
+		val expiries = repository.findAllExpiries()
 
-		assertThat(active).isTrue
+		assertThat(expiries).containsEntry(userId, expires)
 	}
 
 	@Test
-	fun whenActive_returnFalseAfterTimeout() {
+	fun whenSavedAgain_expiryIsUpdated() {
 		val userId = TestUtil.uniqueLong()
-		repository.recordActivity(userId, Duration.ofMillis(50))
-		TestUtil.sleep(Duration.ofMillis(60))
+		val expires = System.currentTimeMillis() + Duration.ofHours(1).toMillis()
+		repository.saveExpiries(mapOf(userId to expires), Duration.ofHours(1))
+		repository.saveExpiries(mapOf(userId to expires + 1000), Duration.ofHours(1))
 
-		val active = repository.wasActiveRecently(userId)
+		val expiries = repository.findAllExpiries()
 
-		assertThat(active).isFalse
+		assertThat(expiries).containsEntry(userId, expires + 1000)
+	}
+
+	@Test
+	fun whenExpired_deleteExpired_deletesOnlyExpired() {
+		val expiredUserId = TestUtil.uniqueLong()
+		val activeUserId = TestUtil.uniqueLong()
+		val now = System.currentTimeMillis()
+		repository.saveExpiries(
+			mapOf(expiredUserId to now - 1000, activeUserId to now + Duration.ofHours(1).toMillis()),
+			Duration.ofHours(1),
+		)
+
+		val deleted = repository.deleteExpired(now, Int.MAX_VALUE)
+
+		assertThat(deleted).isPositive
+		assertThat(repository.findAllExpiries())
+			.doesNotContainKey(expiredUserId)
+			.containsKey(activeUserId)
 	}
 }
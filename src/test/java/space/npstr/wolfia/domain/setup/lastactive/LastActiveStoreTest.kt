@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.domain.setup.lastactive
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+
+internal class LastActiveStoreTest {
+
+	private val store = LastActiveStore()
+
+	@Test
+	fun whenRecorded_isActiveUntilExpiry() {
+		store.record(1, 1000)
+
+		assertThat(store.isActive(1, 999)).isTrue
+		assertThat(store.isActive(1, 1000)).isFalse
+		assertThat(store.isActive(2, 0)).isFalse
+	}
+
+	@Test
+	fun expire_returnsExpiredUsersInOrderOfExpiry() {
+		store.record(1, 3000)
+		store.record(2, 1000)
+		store.record(3, 2000)
+
+		assertThat(store.expire(2500)).containsExactly(2L, 3L)
+		assertThat(store.expire(2500)).isEmpty()
+		assertThat(store.size).isEqualTo(1)
+	}
+
+	@Test
+	fun whenRecordedAgain_expiryIsReplaced() {
+		store.record(1, 1000)
+		store.record(1, 5000)
+
+		assertThat(store.expire(2000)).isEmpty()
+		assertThat(store.expiresOf(1)).isEqualTo(5000)
+		assertThat(store.expire(6000)).containsExactly(1L)
+	}
+
+	@Test
+	fun expire_respectsLimit() {
+		store.record(1, 1000)
+		store.record(2, 1000)
+		store.record(3, 1000)
+
+		assertThat(store.expire(2000, 2)).hasSize(2)
+		assertThat(store.expire(2000, 2)).hasSize(1)
+	}
+}
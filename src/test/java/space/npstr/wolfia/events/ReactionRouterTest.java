@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.events.message.react.GenericMessageReactionEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import space.npstr.wolfia.game.tools.HashedWheelTimer;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReactionRouterTest {
+
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+    private final HashedWheelTimer timer = new HashedWheelTimer("test", Duration.ofMillis(10), 64, executor,
+            new MetricsService(new SimpleMeterRegistry()));
+    private final ReactionRouter router = new ReactionRouter();
+
+    @AfterEach
+    void tearDown() {
+        this.timer.stop();
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void reactionsAreRoutedToTheListenerOfTheirMessage() {
+        List<Long> received = new ArrayList<>();
+        this.router.register(new ReactionListener(this.router, this.timer, message(1), member -> true,
+                event -> received.add(1L), TimeUnit.MINUTES.toMillis(1), __ -> {}));
+        this.router.register(new ReactionListener(this.router, this.timer, message(2), member -> true,
+                event -> received.add(2L), TimeUnit.MINUTES.toMillis(1), __ -> {}));
+
+        this.router.onGenericMessageReaction(reactionOn(2));
+        this.router.onGenericMessageReaction(reactionOn(3));
+
+        assertThat(received).containsExactly(2L);
+    }
+
+    @Test
+    void afterSelfDestruct_reactionsAreNotRoutedAnymore() throws InterruptedException {
+        List<Long> received = new ArrayList<>();
+        CountDownLatch destructed = new CountDownLatch(1);
+        this.router.register(new ReactionListener(this.router, this.timer, message(1), member -> true,
+                event -> received.add(1L), 100, __ -> destructed.countDown()));
+
+        assertThat(destructed.await(5, TimeUnit.SECONDS)).isTrue();
+        this.router.onGenericMessageReaction(reactionOn(1));
+
+        assertThat(received).isEmpty();
+    }
+
+    private static Message message(long messageId) {
+        Message message = mock(Message.class);
+        when(message.getIdLong()).thenReturn(messageId);
+        return message;
+    }
+
+    private static GenericMessageReactionEvent reactionOn(long messageId) {
+        GenericMessageReactionEvent event = mock(GenericMessageReactionEvent.class);
+        when(event.getMessageIdLong()).thenReturn(messageId);
+        return event;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package space.npstr.wolfia.game;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import space.npstr.wolfia.game.definitions.Alignments;
+import space.npstr.wolfia.game.definitions.Roles;
+import space.npstr.wolfia.game.exceptions.IllegalGameStateException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class RosterTest {
+
+    private final GameResources resources = mock(GameResources.class);
+
+    private final Player villagerA = player(30, Alignments.VILLAGE, 1);
+    private final Player wolf = player(10, Alignments.WOLF, 2);
+    private final Player villagerB = player(20, Alignments.VILLAGE, 3);
+    private final Roster roster = new Roster(List.of(this.villagerA, this.wolf, this.villagerB));
+
+    @Test
+    void lookupsFindPlayersByUserIdAndNumber() {
+        assertThat(this.roster.get(10)).isSameAs(this.wolf);
+        assertThat(this.roster.get(30)).isSameAs(this.villagerA);
+        assertThat(this.roster.get(40)).isNull();
+        assertThat(this.roster.getByNumber(3)).isSameAs(this.villagerB);
+        assertThat(this.roster.getByNumber(4)).isNull();
+        assertThat(this.roster.contains(20)).isTrue();
+        assertThat(this.roster.contains(40)).isFalse();
+    }
+
+    @Test
+    void livingPlayersAreOrderedByNumber() {
+        assertThat(this.roster.living()).containsExactly(this.villagerA, this.wolf, this.villagerB);
+        assertThat(this.roster.livingVillage()).containsExactly(this.villagerA, this.villagerB);
+        assertThat(this.roster.livingWolves()).containsExactly(this.wolf);
+    }
+
+    @Test
+    void whenPlayerKilled_countsAndLivingPlayersAreUpdated() throws IllegalGameStateException {
+        this.villagerB.kill();
+
+        assertThat(this.roster.livingCount()).isEqualTo(2);
+        assertThat(this.roster.livingVillageCount()).isEqualTo(1);
+        assertThat(this.roster.livingWolvesCount()).isEqualTo(1);
+        assertThat(this.roster.isLiving(20)).isFalse();
+        assertThat(this.roster.living()).containsExactly(this.villagerA, this.wolf);
+        assertThat(this.roster.all()).hasSize(3);
+        assertThat(this.roster.village()).containsExactly(this.villagerA, this.villagerB);
+
+        this.wolf.kill();
+
+        assertThat(this.roster.livingWolvesCount()).isZero();
+        assertThat(this.roster.livingWolves()).isEmpty();
+    }
+
+    @Test
+    void whenPlayersAreNotInOrderOfTheirNumbers_throw() {
+        assertThatThrownBy(() -> new Roster(List.of(this.wolf, this.villagerA)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Player player(long userId, Alignments alignment, int number) {
+        return new Player(this.resources, userId, 1, 1, alignment, Roles.VANILLA, number);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.game.tools;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedWheelTimerTest {
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    // small wheel so that the tests also cover timeouts that are more than one rotation away
+    private final HashedWheelTimer timer = new HashedWheelTimer("test", Duration.ofMillis(10), 8, worker,
+            new MetricsService(new SimpleMeterRegistry()));
+
+    @AfterEach
+    void tearDown() {
+        this.timer.stop();
+        this.worker.shutdownNow();
+    }
+
+    @Test
+    void timeoutsExpireAfterTheirDelay() throws InterruptedException {
+        var expired = new CountDownLatch(2);
+        long start = System.nanoTime();
+        this.timer.schedule(expired::countDown, Duration.ofMillis(30));
+        this.timer.schedule(expired::countDown, Duration.ofMillis(200));
+
+        assertThat(expired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+        assertThat(this.timer.pending()).isZero();
+    }
+
+    @Test
+    void cancelledTimeouts_doNotExpire() throws InterruptedException {
+        var ran = new AtomicInteger();
+        var later = new CountDownLatch(1);
+        HashedWheelTimer.Timeout timeout = this.timer.schedule(ran::incrementAndGet, Duration.ofMillis(30));
+        this.timer.schedule(later::countDown, Duration.ofMillis(100));
+
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+
+        assertThat(later.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran.get()).isZero();
+        assertThat(timeout.isCancelled()).isTrue();
+    }
+
+    @Test
+    void cancelAll_cancelsOnlyTheTimeoutsOfTheOwner() throws InterruptedException {
+        Object owner = new Object();
+        var ran = new AtomicInteger();
+        var other = new CountDownLatch(1);
+        this.timer.schedule(owner, ran::incrementAndGet, Duration.ofMillis(50));
+        this.timer.scheduleAtFixedRate(owner, ran::incrementAndGet, Duration.ofMillis(50), Duration.ofMillis(10));
+        this.timer.schedule(new Object(), other::countDown, Duration.ofMillis(100));
+        assertThat(this.timer.pending()).isEqualTo(3);
+
+        assertThat(this.timer.cancelAll(owner)).isEqualTo(2);
+        assertThat(this.timer.pending()).isEqualTo(1);
+
+        assertThat(other.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran.get()).isZero();
+    }
+
+    @Test
+    void periodicTimeouts_repeatUntilCancelled() throws InterruptedException {
+        var runs = new CountDownLatch(3);
+        HashedWheelTimer.Timeout timeout = this.timer.scheduleAtFixedRate(runs::countDown,
+                Duration.ZERO, Duration.ofMillis(20));
+
+        assertThat(runs.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(this.timer.pending()).isEqualTo(1);
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(this.timer.pending()).isZero();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.system;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.Event;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import space.npstr.wolfia.system.metrics.ExecutorTelemetry;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DiscordEventBusTest {
+
+    private final List<String> received = new ArrayList<>();
+    private DefaultListableBeanFactory beanFactory;
+    private SimpleMeterRegistry meterRegistry;
+    private DiscordEventBus eventBus;
+
+    @BeforeEach
+    void setup() {
+        this.beanFactory = new DefaultListableBeanFactory();
+        this.beanFactory.registerSingleton("lateListener", new LateListener());
+        this.beanFactory.registerSingleton("earlyListener", new EarlyListener());
+        this.beanFactory.registerSingleton("failingListener", new FailingListener());
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.eventBus = new DiscordEventBus(this.beanFactory, new MetricsService(this.meterRegistry));
+        this.eventBus.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void listenersAreCalledInOrder() {
+        this.eventBus.onEvent(new SpecificEvent());
+
+        assertThat(this.received).containsExactly("early specific", "failing", "late generic");
+    }
+
+    @Test
+    void listenersOfSupertypesReceiveSubtypes() {
+        this.eventBus.onEvent(new OtherEvent());
+
+        assertThat(this.received).containsExactly("late generic");
+    }
+
+    @Test
+    void dispatchIsTimedPerEventType() {
+        this.eventBus.onEvent(new SpecificEvent());
+        this.eventBus.onEvent(new SpecificEvent());
+        this.eventBus.onEvent(new OtherEvent());
+
+        var specific = this.meterRegistry.find("wolfia.discord.event.dispatch").tag("event", "SpecificEvent").timer();
+        assertThat(specific).isNotNull();
+        assertThat(specific.count()).isEqualTo(2);
+        var other = this.meterRegistry.find("wolfia.discord.event.dispatch").tag("event", "OtherEvent").timer();
+        assertThat(other).isNotNull();
+        assertThat(other.count()).isEqualTo(1);
+    }
+
+    @Test
+    void eventTypesWithoutListenersAreNotDispatched_whenEventWaiterIsPresent() {
+        var beanFactory = new DefaultListableBeanFactory();
+        var pool = new ScheduledThreadPoolExecutor(1);
+        var telemetry = new ExecutorTelemetry("test", pool, new MetricsService(new SimpleMeterRegistry()),
+                Duration.ofSeconds(1), Duration.ofSeconds(10));
+        try {
+            beanFactory.registerSingleton("eventWaiter", new EventWaiter(telemetry));
+            var eventBus = new DiscordEventBus(beanFactory, new MetricsService(this.meterRegistry));
+            eventBus.afterSingletonsInstantiated();
+
+            eventBus.onEvent(new OtherEvent());
+            assertThat(this.meterRegistry.find("wolfia.discord.event.dispatch").timers()).isEmpty();
+
+            eventBus.onEvent(mock(MessageReceivedEvent.class));
+            assertThat(this.meterRegistry.find("wolfia.discord.event.dispatch").timers()).hasSize(1);
+        } finally {
+            telemetry.close();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void eventsBeforeListenersAreCollected_areReplayedInOrder() {
+        var eventBus = new DiscordEventBus(this.beanFactory, new MetricsService(this.meterRegistry));
+
+        eventBus.onEvent(new OtherEvent());
+        eventBus.onEvent(new SpecificEvent());
+        assertThat(this.received).isEmpty();
+
+        eventBus.afterSingletonsInstantiated();
+        assertThat(this.received).containsExactly("late generic", "early specific", "failing", "late generic");
+    }
+
+    @Test
+    void givenBusCreatedAfterSingletons_listenersAreCollectedOnRefresh() {
+        var eventBus = new DiscordEventBus(this.beanFactory, new MetricsService(this.meterRegistry));
+
+        eventBus.onApplicationEvent(refreshed(this.beanFactory));
+        eventBus.onEvent(new SpecificEvent());
+
+        assertThat(this.received).containsExactly("early specific", "failing", "late generic");
+    }
+
+    @Test
+    void refreshOfAnotherContextIsIgnored() {
+        var eventBus = new DiscordEventBus(this.beanFactory, new MetricsService(this.meterRegistry));
+
+        eventBus.onApplicationEvent(refreshed(new DefaultListableBeanFactory()));
+        eventBus.onEvent(new SpecificEvent());
+
+        assertThat(this.received).isEmpty();
+    }
+
+    @Test
+    void conditionalListenersAreRejected() {
+        this.beanFactory.registerSingleton("conditionalListener", new ConditionalListener());
+        var eventBus = new DiscordEventBus(this.beanFactory, new MetricsService(this.meterRegistry));
+
+        assertThatThrownBy(eventBus::afterSingletonsInstantiated)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("conditionalListener#onSpecific");
+    }
+
+    private static ContextRefreshedEvent refreshed(DefaultListableBeanFactory beanFactory) {
+        ApplicationContext context = mock(ApplicationContext.class);
+        when(context.getAutowireCapableBeanFactory()).thenReturn(beanFactory);
+        return new ContextRefreshedEvent(context);
+    }
+
+    private static class SpecificEvent extends Event {
+        SpecificEvent() {
+            super(mock(JDA.class));
+        }
+    }
+
+    private static class OtherEvent extends Event {
+        OtherEvent() {
+            super(mock(JDA.class));
+        }
+    }
+
+    private class LateListener {
+        @EventListener
+        public void onEvent(Event event) {
+            received.add("late generic");
+        }
+
+        @EventListener
+        public void onNotADiscordEvent(String notAnEvent) {
+            received.add("not an event");
+        }
+    }
+
+    private class EarlyListener {
+        @EventListener
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        public void onSpecific(SpecificEvent event) {
+            received.add("early specific");
+        }
+    }
+
+    private class FailingListener {
+        @EventListener
+        @Order(0)
+        public void onSpecific(SpecificEvent event) {
+            received.add("failing");
+            throw new IllegalStateException("Listener failure in test");
+        }
+    }
+
+    private class ConditionalListener {
+        @EventListener(condition = "false")
+        public void onSpecific(SpecificEvent event) {
+            received.add("conditional");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.system;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import space.npstr.wolfia.system.metrics.ExecutorTelemetry;
+import space.npstr.wolfia.system.metrics.MetricsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventWaiterTest {
+
+    private final ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(2);
+    private final ExecutorTelemetry telemetry = new ExecutorTelemetry("test", pool,
+            new MetricsService(new SimpleMeterRegistry()), Duration.ofSeconds(1), Duration.ofSeconds(10));
+    private final EventWaiter eventWaiter = new EventWaiter(telemetry);
+
+    @AfterEach
+    void tearDown() {
+        this.telemetry.close();
+        this.pool.shutdownNow();
+    }
+
+    @Test
+    void keyedWaiter_onlyMatchesEventsWithItsKey() throws InterruptedException {
+        var matched = new CountDownLatch(1);
+        var tested = new AtomicInteger();
+        this.eventWaiter.waitForEvent(MessageReceivedEvent.class, EventWaiter.Key.USER, 1,
+                event -> tested.incrementAndGet() >= 0, event -> matched.countDown(),
+                Duration.ofMinutes(1), () -> {});
+
+        this.eventWaiter.onMessageReceived(messageBy(2));
+        assertThat(tested.get()).isZero();
+
+        this.eventWaiter.onMessageReceived(messageBy(1));
+        assertThat(matched.await(5, TimeUnit.SECONDS)).isTrue();
+
+        this.eventWaiter.onMessageReceived(messageBy(1));
+        assertThat(tested.get()).isEqualTo(1);
+    }
+
+    @Test
+    void unkeyedWaiter_matchesOnlyOnce() throws InterruptedException {
+        var matched = new AtomicInteger();
+        var done = new CountDownLatch(1);
+        this.eventWaiter.waitForEvent(MessageReceivedEvent.class, event -> true,
+                event -> {
+                    matched.incrementAndGet();
+                    done.countDown();
+                },
+                Duration.ofMinutes(1), () -> {});
+
+        this.eventWaiter.onMessageReceived(messageBy(1));
+        this.eventWaiter.onMessageReceived(messageBy(2));
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        this.pool.shutdown();
+        assertThat(this.pool.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(matched.get()).isEqualTo(1);
+    }
+
+    @Test
+    void whenNoEventArrives_timeoutActionRuns() throws InterruptedException {
+        var timedOut = new CountDownLatch(1);
+        this.eventWaiter.waitForEvent(MessageReceivedEvent.class, EventWaiter.Key.USER, 1,
+                event -> true, event -> {}, Duration.ofMillis(10), timedOut::countDown);
+
+        assertThat(timedOut.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void whenCancelled_neitherActionRuns() throws InterruptedException {
+        var ran = new AtomicInteger();
+        var waiting = this.eventWaiter.waitForEvent(MessageReceivedEvent.class, EventWaiter.Key.USER, 1,
+                event -> true, event -> ran.incrementAndGet(), Duration.ofMillis(10), ran::incrementAndGet);
+
+        waiting.cancel();
+        this.eventWaiter.onMessageReceived(messageBy(1));
+
+        Thread.sleep(100);
+        assertThat(ran.get()).isZero();
+    }
+
+    private static MessageReceivedEvent messageBy(long userId) {
+        User user = mock(User.class);
+        when(user.getIdLong()).thenReturn(userId);
+        MessageReceivedEvent event = mock(MessageReceivedEvent.class);
+        when(event.getAuthor()).thenReturn(user);
+        return event;
+    }
+}
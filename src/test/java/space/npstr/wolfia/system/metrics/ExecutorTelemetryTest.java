@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.system.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ExecutorTelemetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(2);
+    private final ExecutorTelemetry telemetry = new ExecutorTelemetry("test", pool,
+            new MetricsService(meterRegistry), Duration.ofMillis(20), Duration.ofMillis(100));
+
+    @AfterEach
+    void tearDown() {
+        this.telemetry.close();
+        this.pool.shutdownNow();
+    }
+
+    @Test
+    void tasksAreMeasuredByRole() throws Exception {
+        ScheduledExecutorService callbacks = this.telemetry.forRole("callback");
+        ScheduledExecutorService gateway = this.telemetry.forRole("gateway");
+
+        callbacks.submit(() -> {}).get(5, TimeUnit.SECONDS);
+        callbacks.schedule(() -> "done", 10, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS);
+        gateway.execute(() -> {});
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(runCount("callback")).isEqualTo(2);
+            assertThat(runCount("gateway")).isEqualTo(1);
+        });
+        assertThat(this.meterRegistry.get("wolfia.executor.task.wait").tag("role", "callback").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void probeRecordsLag() {
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(this.meterRegistry.get("wolfia.executor.lag").timer().count()).isPositive());
+    }
+
+    @Test
+    void longRunningTasksCountAsBlocked() throws InterruptedException {
+        var release = new CountDownLatch(1);
+        this.telemetry.forRole("callback").execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(blockedThreads()).isEqualTo(1));
+
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(blockedThreads()).isZero());
+    }
+
+    private long runCount(String role) {
+        return this.meterRegistry.get("wolfia.executor.task.run").tag("role", role).timer().count();
+    }
+
+    private double blockedThreads() {
+        return this.meterRegistry.get("wolfia.executor.threads.blocked").gauge().value();
+    }
+}
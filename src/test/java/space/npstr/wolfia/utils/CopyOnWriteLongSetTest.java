@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2016-2025 the original author or authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package space.npstr.wolfia.utils;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CopyOnWriteLongSetTest {
+
+    @Test
+    void addAndRemove() {
+        var set = new CopyOnWriteLongSet();
+
+        assertThat(set.add(42)).isTrue();
+        assertThat(set.add(-1)).isTrue();
+        assertThat(set.add(Long.MAX_VALUE)).isTrue();
+        assertThat(set.add(42)).isFalse();
+
+        assertThat(set.size()).isEqualTo(3);
+        assertThat(set.contains(42)).isTrue();
+        assertThat(set.contains(-1)).isTrue();
+        assertThat(set.contains(Long.MAX_VALUE)).isTrue();
+        assertThat(set.contains(0)).isFalse();
+
+        assertThat(set.remove(42)).isTrue();
+        assertThat(set.remove(42)).isFalse();
+        assertThat(set.contains(42)).isFalse();
+        assertThat(set.size()).isEqualTo(2);
+    }
+
+    @Test
+    void replaceAll() {
+        var set = new CopyOnWriteLongSet();
+        set.add(1);
+
+        set.replaceAll(List.of(5L, 3L, 5L, 2L));
+
+        assertThat(set.size()).isEqualTo(3);
+        assertThat(set.contains(1)).isFalse();
+        assertThat(set.contains(2)).isTrue();
+        assertThat(set.contains(3)).isTrue();
+        assertThat(set.contains(5)).isTrue();
+    }
+}